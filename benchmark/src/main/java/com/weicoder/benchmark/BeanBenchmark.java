@@ -0,0 +1,72 @@
+package com.weicoder.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.weicoder.common.lang.Conversion;
+import com.weicoder.common.lang.Maps;
+import com.weicoder.common.util.BeanUtil;
+
+/**
+ * BeanUtil与Conversion 基准测试
+ * @author WD
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeanBenchmark {
+	// 实体
+	private User				user;
+	// 属性map
+	private Map<String, Object>	map;
+
+	@Setup
+	public void setup() {
+		user = new User(1, "weicoder", System.currentTimeMillis(), 99.5, true);
+		map = Maps.newMap();
+		map.put("id", "1");
+		map.put("name", "weicoder");
+		map.put("time", System.currentTimeMillis());
+		map.put("score", "99.5");
+		map.put("valid", "true");
+	}
+
+	@Benchmark
+	public User copy() {
+		return BeanUtil.copy(user, User.class);
+	}
+
+	@Benchmark
+	public User copyMap() {
+		return BeanUtil.copy(map, User.class);
+	}
+
+	@Benchmark
+	public Object toInt() {
+		return Conversion.to("12345", int.class);
+	}
+
+	@Benchmark
+	public Object toLong() {
+		return Conversion.to(12345, Long.class);
+	}
+
+	@Benchmark
+	public Object toDouble() {
+		return Conversion.to("99.5", double.class);
+	}
+}
@@ -0,0 +1,46 @@
+package com.weicoder.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基准测试入口 参数与JMH命令行相同 默认把结果以JSON写入benchmark-版本.json 用于对比不同版本<br/>
+ * 打包 mvn -P benchmark package 运行 java -jar benchmark/target/benchmarks.jar [正则]
+ * @author WD
+ */
+public final class Benchmarks {
+	/**
+	 * 运行基准测试
+	 * @param args JMH命令行参数
+	 * @throws RunnerException 运行异常
+	 * @throws CommandLineOptionException 参数异常
+	 */
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		// 命令行参数
+		CommandLineOptions cmd = new CommandLineOptions(args);
+		ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd);
+		// 没有指定结果格式时使用JSON
+		if (!cmd.getResultFormat().hasValue())
+			options.resultFormat(ResultFormatType.JSON);
+		// 没有指定结果文件时按版本命名
+		if (!cmd.getResult().hasValue())
+			options.result("benchmark-" + version() + ".json");
+		new Runner(options.build()).run();
+	}
+
+	/**
+	 * 获得版本
+	 * @return 版本
+	 */
+	private static String version() {
+		String v = Benchmarks.class.getPackage().getImplementationVersion();
+		return v == null ? System.getProperty("benchmark.version", "dev") : v;
+	}
+
+	private Benchmarks() {}
+}
@@ -0,0 +1,65 @@
+package com.weicoder.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.weicoder.common.binary.Buffer;
+import com.weicoder.common.lang.Bytes;
+
+/**
+ * Bytes与Buffer 基准测试
+ * @author WD
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BytesBenchmark {
+	// 实体
+	private User	user;
+	// 实体字节数组
+	private byte[]	bytes;
+
+	@Setup
+	public void setup() {
+		user = new User(1, "weicoder", System.currentTimeMillis(), 99.5, true);
+		bytes = Bytes.toBytes(user);
+	}
+
+	@Benchmark
+	public byte[] toBytes() {
+		return Bytes.toBytes(user);
+	}
+
+	@Benchmark
+	public byte[] toBytesPrimitives() {
+		return Bytes.toBytes(1, 2L, (short) 3, "weicoder");
+	}
+
+	@Benchmark
+	public User toBinary() {
+		return Bytes.toBinary(User.class, bytes);
+	}
+
+	@Benchmark
+	public long buffer() {
+		Buffer buf = new Buffer();
+		buf.writeInt(1);
+		buf.writeLong(2L);
+		buf.writeShort((short) 3);
+		buf.writeString("weicoder");
+		return buf.readInt() + buf.readLong() + buf.readShort() + buf.readString().length();
+	}
+}
@@ -0,0 +1,71 @@
+package com.weicoder.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.weicoder.common.crypto.Decrypts;
+import com.weicoder.common.crypto.Digest;
+import com.weicoder.common.crypto.Encrypts;
+import com.weicoder.common.token.TokenBean;
+import com.weicoder.common.token.TokenEngine;
+
+/**
+ * Digest Encrypts与TokenEngine 基准测试
+ * @author WD
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CryptoBenchmark {
+	// 明文
+	private String	text;
+	// 密文
+	private String	encrypt;
+	// token
+	private String	token;
+
+	@Setup
+	public void setup() {
+		text = "weicoder benchmark text";
+		encrypt = Encrypts.encrypt(text);
+		token = TokenEngine.encrypt(1, "127.0.0.1", 3600);
+	}
+
+	@Benchmark
+	public String md5() {
+		return Digest.md5(text);
+	}
+
+	@Benchmark
+	public String sha256() {
+		return Digest.sha256(text);
+	}
+
+	@Benchmark
+	public String encrypt() {
+		return Encrypts.encrypt(text);
+	}
+
+	@Benchmark
+	public byte[] decrypt() {
+		return Decrypts.decrypt(encrypt);
+	}
+
+	@Benchmark
+	public TokenBean decryptToken() {
+		return TokenEngine.decrypt(token);
+	}
+}
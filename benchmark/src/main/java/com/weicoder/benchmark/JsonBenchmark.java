@@ -0,0 +1,49 @@
+package com.weicoder.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.weicoder.core.json.JsonEngine;
+
+/**
+ * JsonEngine 基准测试
+ * @author WD
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+	// 实体
+	private User	user;
+	// json字符串
+	private String	json;
+
+	@Setup
+	public void setup() {
+		user = new User(1, "weicoder", System.currentTimeMillis(), 99.5, true);
+		json = JsonEngine.toJson(user);
+	}
+
+	@Benchmark
+	public String toJson() {
+		return JsonEngine.toJson(user);
+	}
+
+	@Benchmark
+	public User toBean() {
+		return JsonEngine.toBean(json, User.class);
+	}
+}
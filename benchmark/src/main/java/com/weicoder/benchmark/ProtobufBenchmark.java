@@ -0,0 +1,49 @@
+package com.weicoder.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.weicoder.protobuf.ProtobufEngine;
+
+/**
+ * ProtobufEngine 基准测试
+ * @author WD
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProtobufBenchmark {
+	// 实体
+	private User	user;
+	// 序列化数据
+	private byte[]	bytes;
+
+	@Setup
+	public void setup() {
+		user = new User(1, "weicoder", System.currentTimeMillis(), 99.5, true);
+		bytes = ProtobufEngine.toBytes(user);
+	}
+
+	@Benchmark
+	public byte[] toBytes() {
+		return ProtobufEngine.toBytes(user);
+	}
+
+	@Benchmark
+	public User toBean() {
+		return ProtobufEngine.toBean(bytes, User.class);
+	}
+}
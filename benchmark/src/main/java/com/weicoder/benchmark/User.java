@@ -0,0 +1,83 @@
+package com.weicoder.benchmark;
+
+import com.weicoder.common.binary.Binary;
+import com.weicoder.protobuf.Protobuf;
+
+/**
+ * 基准测试使用的实体 同时用于Binary Protobuf Json和Bean复制
+ * @author WD
+ */
+@Protobuf
+public class User implements Binary {
+	// 编号
+	private int		id;
+	// 名称
+	private String	name;
+	// 时间
+	private long	time;
+	// 分数
+	private double	score;
+	// 是否有效
+	private boolean	valid;
+
+	/**
+	 * 构造
+	 */
+	public User() {}
+
+	/**
+	 * 构造
+	 * @param id 编号
+	 * @param name 名称
+	 * @param time 时间
+	 * @param score 分数
+	 * @param valid 是否有效
+	 */
+	public User(int id, String name, long time, double score, boolean valid) {
+		this.id = id;
+		this.name = name;
+		this.time = time;
+		this.score = score;
+		this.valid = valid;
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	public void setId(int id) {
+		this.id = id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public long getTime() {
+		return time;
+	}
+
+	public void setTime(long time) {
+		this.time = time;
+	}
+
+	public double getScore() {
+		return score;
+	}
+
+	public void setScore(double score) {
+		this.score = score;
+	}
+
+	public boolean isValid() {
+		return valid;
+	}
+
+	public void setValid(boolean valid) {
+		this.valid = valid;
+	}
+}
@@ -0,0 +1,56 @@
+package com.weicoder.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.weicoder.common.zip.ZipEngine;
+
+/**
+ * ZipEngine 基准测试 压缩算法由配置zip选择
+ * @author WD
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ZipBenchmark {
+	// 数据长度
+	@Param({ "256", "4096", "65536" })
+	private int		size;
+	// 原始数据
+	private byte[]	data;
+	// 压缩数据
+	private byte[]	zip;
+
+	@Setup
+	public void setup() {
+		// 有重复的数据 接近真实消息
+		data = new byte[size];
+		for (int i = 0; i < size; i++)
+			data[i] = (byte) ('a' + i % 23 + i / 97 % 3);
+		zip = ZipEngine.compress(data);
+	}
+
+	@Benchmark
+	public byte[] compress() {
+		return ZipEngine.compress(data);
+	}
+
+	@Benchmark
+	public byte[] extract() {
+		return ZipEngine.extract(zip);
+	}
+}
@@ -4,6 +4,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 import com.weicoder.common.factory.FactoryKey;
+import com.weicoder.common.log.Logs;
 import com.weicoder.common.params.CommonParams;
 
 /**
@@ -14,7 +15,7 @@ class ExecutorFactory extends FactoryKey<String, ExecutorService> {
 
 	@Override
 	public ExecutorService newInstance(String key) {
-		return newPool(CommonParams.getExecutorPool(key), CommonParams.getExecutorDaemon(key));
+		return newPool(CommonParams.getExecutorType(key), CommonParams.getExecutorPool(key), CommonParams.getExecutorDaemon(key));
 	}
 
 	/**
@@ -27,4 +28,26 @@ class ExecutorFactory extends FactoryKey<String, ExecutorService> {
 		return daemon ? Executors.newFixedThreadPool(pool, DaemonThreadFactory.INSTANCE)
 				: Executors.newFixedThreadPool(pool);
 	}
+
+	/**
+	 * 获得新的线程池
+	 * @param type 线程池类型 virtual 每个任务一个虚拟线程 forkjoin 工作窃取池 其它为固定数量线程池
+	 * @param pool 线程池数量 virtual时无效
+	 * @param daemon 是否守护线程 virtual和forkjoin都是守护线程
+	 * @return 线程池
+	 */
+	public ExecutorService newPool(String type, int pool, boolean daemon) {
+		// 虚拟线程 JDK不支持时使用固定线程池
+		if ("virtual".equals(type)) {
+			ExecutorService service = VirtualThreads.executor();
+			if (service != null)
+				return service;
+			Logs.warn("executor type virtual not supported by java {} use fixed pool={}", System.getProperty("java.version"), pool);
+		}
+		// 工作窃取池
+		if ("forkjoin".equals(type))
+			return Executors.newWorkStealingPool(pool);
+		// 固定线程池
+		return newPool(pool, daemon);
+	}
 }
@@ -1,16 +1,16 @@
 package com.weicoder.common.concurrent;
 
-import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import com.weicoder.common.constants.StringConstants;
 import com.weicoder.common.lang.Lists;
 import com.weicoder.common.log.Logs;
-import com.weicoder.common.util.EmptyUtil;
 
 /**
  * 并发线程任务处理
@@ -33,6 +33,17 @@ public final class ExecutorUtil {
 		return FACTORY.newPool(pool, daemon);
 	}
 
+	/**
+	 * 获得新的线程池
+	 * @param type 线程池类型 virtual fixed forkjoin JDK不支持virtual时使用fixed
+	 * @param pool 线程池数量
+	 * @param daemon 是否守护线程
+	 * @return 线程池
+	 */
+	public static ExecutorService newPool(String type, int pool, boolean daemon) {
+		return FACTORY.newPool(type, pool, daemon);
+	}
+
 	/**
 	 * 获得线程池 此方法返回守护线程的池
 	 * @return 线程池
@@ -96,24 +107,27 @@ public final class ExecutorUtil {
 	 * @param tasks 任务
 	 */
 	public static void execute(List<Runnable> tasks) {
+		execute(StringConstants.EMPTY, tasks);
+	}
+
+	/**
+	 * 在指定线程池执行任务 等待全部任务结束
+	 * @param name 线程池名
+	 * @param tasks 任务
+	 */
+	public static void execute(String name, List<Runnable> tasks) {
 		// 声明结果列表
 		List<Future<?>> list = Lists.newList(tasks.size());
 		// 执行任务
-		tasks.forEach(task -> {
-			list.add(pool().submit(task));
-		});
-		// 循环等待
-		while (pool().isTerminated()) {
-			// 是否全部完成
-			for (Iterator<Future<?>> it = list.iterator(); it.hasNext();) {
-				if (it.next().isDone())
-					it.remove();
-			}
-			// 如果列表为空
-			if (EmptyUtil.isEmpty(list)) {
-				break;
+		tasks.forEach(task -> list.add(pool(name).submit(task)));
+		// 等待全部任务结束
+		list.forEach(f -> {
+			try {
+				f.get();
+			} catch (Exception e) {
+				Logs.warn(e);
 			}
-		}
+		});
 	}
 
 	/**
@@ -129,11 +143,26 @@ public final class ExecutorUtil {
 	/**
 	 * 提交一个 Runnable 任务用于执行，并返回一个表示该任务的 Future
 	 * @param tasks Runnable 任务
-	 * @param timeout 如果可以最多等待的时间
+	 * @param timeout 全部任务最多等待的时间 毫秒
 	 * @param <T> 泛型
 	 * @return 表示该任务的 Future
 	 */
 	public static <T> List<T> submit(List<Callable<T>> tasks, long timeout) {
+		return submit(StringConstants.EMPTY, tasks, timeout);
+	}
+
+	/**
+	 * 在指定线程池并发执行任务 按任务顺序返回成功的结果<br/>
+	 * timeout为全部任务的截止时间 到时未完成的任务会被取消 失败和超时的任务不在结果中
+	 * @param name 线程池名
+	 * @param tasks 任务
+	 * @param timeout 全部任务最多等待的时间 毫秒 小于等于0一直等待
+	 * @param <T> 泛型
+	 * @return 已完成任务的结果
+	 */
+	public static <T> List<T> submit(String name, List<Callable<T>> tasks, long timeout) {
+		// 截止时间
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
 		// 获得列表长度
 		int len = tasks.size();
 		// 声明结果列表
@@ -141,23 +170,104 @@ public final class ExecutorUtil {
 		// 声明返回列表
 		List<T> ls = Lists.newList(len);
 		// 执行任务
-		tasks.forEach(task -> {
-			list.add(pool().submit(task));
-		});
-		// 循环获得结果
-		list.forEach(f -> {
+		tasks.forEach(task -> list.add(pool(name).submit(task)));
+		// 循环获得结果 超过截止时间只取已完成的结果
+		for (Future<T> f : list)
 			try {
 				if (timeout > 0)
-					ls.add(f.get(timeout, TimeUnit.MILLISECONDS));
+					ls.add(f.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS));
 				else
 					ls.add(f.get());
+			} catch (TimeoutException e) {
+				// 超时取消任务
+				f.cancel(true);
 			} catch (Exception e) {
 				Logs.warn(e);
 			}
-		});
 		// 返回列表
 		return ls;
 	}
 
+	/**
+	 * 在指定线程池异步执行任务 取消返回的Future会中断任务
+	 * @param name 线程池名
+	 * @param task 任务
+	 * @param <T> 泛型
+	 * @return 任务结果
+	 */
+	public static <T> CompletableFuture<T> supply(String name, Callable<T> task) {
+		// 声明结果
+		CompletableFuture<T> result = new CompletableFuture<>();
+		// 执行任务
+		Future<?> f = pool(name).submit(() -> {
+			try {
+				result.complete(task.call());
+			} catch (Throwable e) {
+				result.completeExceptionally(e);
+			}
+		});
+		// 结果取消 取消任务
+		result.whenComplete((v, e) -> {
+			if (result.isCancelled())
+				f.cancel(true);
+		});
+		// 返回结果
+		return result;
+	}
+
+	/**
+	 * 在指定线程池并发执行任务 全部成功后按任务顺序返回结果<br/>
+	 * 任一任务失败或超过截止时间 结果以异常完成并取消其它未完成的任务 取消返回的Future也会取消全部任务
+	 * @param name 线程池名
+	 * @param tasks 任务
+	 * @param timeout 全部任务最多等待的时间 毫秒 小于等于0不限时
+	 * @param <T> 泛型
+	 * @return 全部任务的结果
+	 */
+	public static <T> CompletableFuture<List<T>> all(String name, List<Callable<T>> tasks, long timeout) {
+		// 获得列表长度
+		int len = tasks.size();
+		// 声明结果
+		CompletableFuture<List<T>> result = new CompletableFuture<>();
+		// 每个任务的结果
+		List<CompletableFuture<T>> cfs = Lists.newList(len);
+		// 执行的任务 用来取消
+		List<Future<?>> futures = Lists.newList(len);
+		// 执行任务
+		ExecutorService pool = pool(name);
+		for (Callable<T> task : tasks) {
+			CompletableFuture<T> cf = new CompletableFuture<>();
+			cfs.add(cf);
+			futures.add(pool.submit(() -> {
+				try {
+					cf.complete(task.call());
+				} catch (Throwable e) {
+					cf.completeExceptionally(e);
+				}
+			}));
+		}
+		// 任一任务失败 结果失败
+		cfs.forEach(cf -> cf.whenComplete((v, e) -> {
+			if (e != null)
+				result.completeExceptionally(e);
+		}));
+		// 全部任务成功 按顺序返回结果
+		CompletableFuture.allOf(cfs.toArray(new CompletableFuture<?>[len])).thenRun(() -> {
+			List<T> ls = Lists.newList(len);
+			cfs.forEach(cf -> ls.add(cf.join()));
+			result.complete(ls);
+		});
+		// 截止时间
+		if (timeout > 0)
+			result.orTimeout(timeout, TimeUnit.MILLISECONDS);
+		// 结果失败或取消 取消未完成的任务
+		result.whenComplete((v, e) -> {
+			if (e != null)
+				futures.forEach(f -> f.cancel(true));
+		});
+		// 返回结果
+		return result;
+	}
+
 	private ExecutorUtil() {}
 }
\ No newline at end of file
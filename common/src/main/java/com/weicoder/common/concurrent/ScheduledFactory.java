@@ -1,9 +1,11 @@
 package com.weicoder.common.concurrent;
 
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 
 import com.weicoder.common.factory.FactoryKey;
+import com.weicoder.common.log.Logs;
 import com.weicoder.common.params.CommonParams;
 
 /**
@@ -13,7 +15,7 @@ import com.weicoder.common.params.CommonParams;
 class ScheduledFactory extends FactoryKey<String, ScheduledExecutorService> {
 	@Override
 	public ScheduledExecutorService newInstance(String key) {
-		return newPool(CommonParams.getScheduledPool(key), CommonParams.getScheduledDaemon(key));
+		return newPool(CommonParams.getScheduledType(key), CommonParams.getScheduledPool(key), CommonParams.getScheduledDaemon(key));
 	}
 
 	/**
@@ -26,4 +28,23 @@ class ScheduledFactory extends FactoryKey<String, ScheduledExecutorService> {
 		return daemon ? Executors.newScheduledThreadPool(size, DaemonThreadFactory.INSTANCE)
 				: Executors.newScheduledThreadPool(size);
 	}
+
+	/**
+	 * 获得新的线程任务池
+	 * @param type 线程类型 virtual 一个平台线程计时 到期任务每个一个虚拟线程执行 其它为平台线程
+	 * @param size 池数量 virtual时不使用
+	 * @param daemon 是否守护线程 virtual时都是守护线程
+	 * @return 线程任务池
+	 */
+	public ScheduledExecutorService newPool(String type, int size, boolean daemon) {
+		// 虚拟线程 JDK不支持时使用平台线程
+		if ("virtual".equals(type)) {
+			ExecutorService executor = VirtualThreads.executor();
+			if (executor != null)
+				return new VirtualScheduledExecutor(executor);
+			Logs.warn("scheduled type virtual not supported by java {} use platform threads", System.getProperty("java.version"));
+		}
+		// 平台线程
+		return newPool(size, daemon);
+	}
 }
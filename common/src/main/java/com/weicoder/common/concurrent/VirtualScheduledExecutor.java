@@ -0,0 +1,117 @@
+package com.weicoder.common.concurrent;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 虚拟线程定时任务池 一个平台守护线程负责计时 到期的任务交给每个任务一个虚拟线程的线程池执行<br/>
+ * 周期任务在本次执行结束后才安排下次 不会重叠执行 shutdownNow只中断计时线程 不中断执行中的虚拟线程
+ * @author WD
+ */
+final class VirtualScheduledExecutor extends ScheduledThreadPoolExecutor {
+	// 执行任务的虚拟线程池
+	private final ExecutorService executor;
+
+	/**
+	 * 构造
+	 * @param executor 执行任务的线程池
+	 */
+	VirtualScheduledExecutor(ExecutorService executor) {
+		super(1, DaemonThreadFactory.INSTANCE);
+		this.executor = executor;
+	}
+
+	@Override
+	protected <V> RunnableScheduledFuture<V> decorateTask(Runnable runnable, RunnableScheduledFuture<V> task) {
+		return new Task<>(task);
+	}
+
+	@Override
+	protected <V> RunnableScheduledFuture<V> decorateTask(Callable<V> callable, RunnableScheduledFuture<V> task) {
+		return new Task<>(task);
+	}
+
+	@Override
+	protected void terminated() {
+		// 计时结束 已交出的任务继续执行完
+		executor.shutdown();
+	}
+
+	/**
+	 * 到期时交给虚拟线程执行的任务 其它方法都使用原任务 周期任务由原任务重新加入队列
+	 * @author WD
+	 */
+	private final class Task<V> implements RunnableScheduledFuture<V> {
+		// 原任务
+		private final RunnableScheduledFuture<V> task;
+
+		/**
+		 * 构造
+		 * @param task 原任务
+		 */
+		Task(RunnableScheduledFuture<V> task) {
+			this.task = task;
+		}
+
+		@Override
+		public void run() {
+			try {
+				executor.execute(task);
+			} catch (RejectedExecutionException e) {
+				// 虚拟线程池已关闭 在计时线程执行
+				task.run();
+			}
+		}
+
+		@Override
+		public boolean isPeriodic() {
+			return task.isPeriodic();
+		}
+
+		@Override
+		public long getDelay(TimeUnit unit) {
+			return task.getDelay(unit);
+		}
+
+		@Override
+		public int compareTo(Delayed o) {
+			return task.compareTo(o instanceof Task ? ((Task<?>) o).task : o);
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			boolean cancelled = task.cancel(mayInterruptIfRunning);
+			// 与原任务一样按设置从队列删除
+			if (cancelled && getRemoveOnCancelPolicy())
+				remove(this);
+			return cancelled;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return task.isCancelled();
+		}
+
+		@Override
+		public boolean isDone() {
+			return task.isDone();
+		}
+
+		@Override
+		public V get() throws InterruptedException, ExecutionException {
+			return task.get();
+		}
+
+		@Override
+		public V get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+			return task.get(timeout, unit);
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package com.weicoder.common.concurrent;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.weicoder.common.log.Logs;
+
+/**
+ * 虚拟线程 JDK21以上可用 使用MethodHandle调用 低版本JDK不支持时返回null
+ * @author WD
+ */
+final class VirtualThreads {
+	// Executors.newVirtualThreadPerTaskExecutor()
+	private final static MethodHandle	EXECUTOR;
+
+	static {
+		MethodHandle executor = null;
+		try {
+			executor = MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+		} catch (Throwable e) {
+			executor = null;
+		}
+		EXECUTOR = executor;
+	}
+
+	/**
+	 * 每个任务一个虚拟线程的线程池
+	 * @return 线程池 不支持返回null
+	 */
+	static ExecutorService executor() {
+		try {
+			return EXECUTOR == null ? null : (ExecutorService) EXECUTOR.invokeExact();
+		} catch (Throwable e) {
+			Logs.error(e);
+			return null;
+		}
+	}
+
+	private VirtualThreads() {}
+}
@@ -9,6 +9,8 @@ public final class ArrayConstants {
 	public final static byte[]		BYTES_EMPTY		= new byte[0];
 	/** 一个空的字符串数组 */
 	public final static String[]	STRING_EMPTY	= new String[0];
+	/** 一个空的对象数组 */
+	public final static Object[]	OBJECT_EMPTY	= new Object[0];
 
 	private ArrayConstants() {}
 }
@@ -0,0 +1,14 @@
+package com.weicoder.common.interfaces;
+
+/**
+ * 类型转换器 把源类型转换成目标类型
+ * @author WD
+ */
+public interface Converter<S, T> {
+	/**
+	 * 转换对象
+	 * @param source 源对象
+	 * @return 转换后的对象
+	 */
+	T convert(S source);
+}
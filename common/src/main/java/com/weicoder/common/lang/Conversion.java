@@ -1,9 +1,12 @@
 package com.weicoder.common.lang;
 
+import java.lang.invoke.MethodType;
 import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.Map;
 
 import com.weicoder.common.constants.StringConstants;
+import com.weicoder.common.interfaces.Converter;
 import com.weicoder.common.util.EmptyUtil;
 import com.weicoder.common.util.MathUtil;
 
@@ -12,6 +15,34 @@ import com.weicoder.common.util.MathUtil;
  * @author WD
  */
 public final class Conversion {
+	// 注册的转换器 目标类型-源类型-转换器
+	private final static Map<Class<?>, Map<Class<?>, Converter<Object, Object>>>	REGISTERS	= Maps.newConcurrentMap();
+	// 解析后的转换器缓存 目标类型-源类型-转换器
+	private final static Map<Class<?>, Map<Class<?>, Converter<Object, Object>>>	CONVERTERS	= Maps.newConcurrentMap();
+	// 内置目标类型的转换器
+	private final static Map<Class<?>, Converter<Object, Object>>					BUILTINS	= Maps.newMap();
+	// 原样返回
+	private final static Converter<Object, Object>									IDENTITY	= obj -> obj;
+
+	static {
+		BUILTINS.put(String.class, Conversion::toString);
+		BUILTINS.put(Integer.class, Conversion::toInt);
+		BUILTINS.put(int.class, Conversion::toInt);
+		BUILTINS.put(Long.class, Conversion::toLong);
+		BUILTINS.put(long.class, Conversion::toLong);
+		BUILTINS.put(Float.class, Conversion::toFloat);
+		BUILTINS.put(float.class, Conversion::toFloat);
+		BUILTINS.put(Double.class, Conversion::toDouble);
+		BUILTINS.put(double.class, Conversion::toDouble);
+		BUILTINS.put(Short.class, Conversion::toShort);
+		BUILTINS.put(short.class, Conversion::toShort);
+		BUILTINS.put(Byte.class, Conversion::toByte);
+		BUILTINS.put(byte.class, Conversion::toByte);
+		BUILTINS.put(BigDecimal.class, Conversion::toBigDecimal);
+		BUILTINS.put(Boolean.class, Conversion::toBoolean);
+		BUILTINS.put(boolean.class, Conversion::toBoolean);
+	}
+
 	/**
 	 * 转换dest到src同类型
 	 * @param obj 要转换的对象
@@ -22,26 +53,71 @@ public final class Conversion {
 		// 判断类型
 		if (c == null)
 			return obj;
-		if (String.class == c)
-			return toString(obj);
-		if (Integer.class == c || int.class == c)
-			return toInt(obj);
-		if (Long.class == c || long.class == c)
-			return toLong(obj);
-		if (Float.class == c || float.class == c)
-			return toFloat(obj);
-		if (Double.class == c || double.class == c)
-			return toDouble(obj);
-		if (Short.class == c || short.class == c)
-			return toShort(obj);
-		if (Byte.class == c || byte.class == c)
-			return toByte(obj);
-		if (BigDecimal.class == c)
-			return toBigDecimal(obj);
-		if (Boolean.class == c || boolean.class == c)
-			return toBoolean(obj);
-		// 返回原类型
-		return obj;
+		// 使用缓存的转换器 null按Object类型转换
+		return converter(obj == null ? Object.class : obj.getClass(), c).convert(obj);
+	}
+
+	/**
+	 * 注册类型转换器 源类型的子类也使用此转换器 注册后覆盖内置转换
+	 * @param source 源类型
+	 * @param target 目标类型
+	 * @param converter 转换器
+	 * @param <S> 源类型
+	 * @param <T> 目标类型
+	 */
+	@SuppressWarnings("unchecked")
+	public static <S, T> void register(Class<S> source, Class<T> target, Converter<S, T> converter) {
+		// 添加转换器
+		REGISTERS.computeIfAbsent(target, k -> Maps.newConcurrentMap()).put(source, (Converter<Object, Object>) converter);
+		// 清除已解析的转换器
+		CONVERTERS.clear();
+	}
+
+	/**
+	 * 获得源类型到目标类型的转换器 每对类型只解析一次
+	 * @param source 源类型
+	 * @param target 目标类型
+	 * @return 转换器 不能转换的类型原样返回
+	 */
+	public static Converter<Object, Object> converter(Class<?> source, Class<?> target) {
+		// 获得目标类型对应的转换器
+		Map<Class<?>, Converter<Object, Object>> map = CONVERTERS.get(target);
+		if (map == null)
+			map = CONVERTERS.computeIfAbsent(target, k -> Maps.newConcurrentMap());
+		// 获得源类型对应的转换器
+		Converter<Object, Object> c = map.get(source);
+		if (c == null)
+			map.put(source, c = resolve(source, target));
+		// 返回转换器
+		return c;
+	}
+
+	/**
+	 * 解析转换器 先查找注册的转换器 再查找内置转换器
+	 * @param source 源类型
+	 * @param target 目标类型
+	 * @return 转换器
+	 */
+	private static Converter<Object, Object> resolve(Class<?> source, Class<?> target) {
+		// 查找注册的转换器 包括源类型的父类和接口
+		Map<Class<?>, Converter<Object, Object>> registers = REGISTERS.get(target);
+		if (registers != null)
+			for (Class<?> c = source; c != null; c = c.getSuperclass()) {
+				if (registers.containsKey(c))
+					return registers.get(c);
+				for (Class<?> i : c.getInterfaces())
+					if (registers.containsKey(i))
+						return registers.get(i);
+			}
+		// 内置转换器
+		Converter<Object, Object> c = BUILTINS.get(target);
+		if (c == null)
+			return IDENTITY;
+		// 源类型就是目标类型的包装类 不需要转换 避免拆箱再装箱 字符串要trim
+		if (target != String.class && (source == target || source == MethodType.methodType(target).wrap().returnType()))
+			return IDENTITY;
+		// 返回内置转换器
+		return c;
 	}
 
 	/**
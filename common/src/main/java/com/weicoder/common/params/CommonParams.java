@@ -24,6 +24,12 @@ public final class CommonParams {
 	public final static String		ENCODING				= Params.getString("encoding", "UTF-8");
 	/** 日期格式 */
 	public final static String		DATE_FORMAT				= Params.getString("date.format", DateConstants.FORMAT_Y_M_D_H_M_S);
+	/** 压缩算法 zlib lz4 snappy zstd */
+	public final static String		ZIP						= Params.getString("zip", "zlib");
+	/** 压缩级别 -1为算法默认级别 */
+	public final static int			ZIP_LEVEL				= Params.getInt("zip.level", -1);
+	/** 解压后的最大字节数 防止数据中声明的长度过大 */
+	public final static int			ZIP_MAX					= Params.getInt("zip.max", 64 * 1024 * 1024);
 	/** 转换字节数组算法 */
 	public final static String		BYTES					= Params.getString("bytes", "high");
 	/** 加密使用的密钥 字符串 */
@@ -34,6 +40,8 @@ public final class CommonParams {
 	public final static String		ENCRYPT_DIGEST			= Params.getString("encrypt.digest", EncryptConstants.ALGO_SHA_1);
 	/** 包名 */
 	public final static String		PACKAGES				= Params.getString("packages");
+	/** 是否使用编译时生成的注解索引 没有索引时扫描类路径 */
+	public final static boolean		CLASS_INDEX				= Params.getBoolean("class.index", true);
 	/** 获得ips过滤组 */
 	public final static String[]	IPS						= Params.getStringArray("ips", ArrayConstants.STRING_EMPTY);
 	/** token 验证长度 */
@@ -67,6 +75,15 @@ public final class CommonParams {
 		return Params.getInt(Params.getKey("scheduled", name, "pool"), SystemConstants.CPU_NUM);
 	}
 
+	/**
+	 * 获得定时任务线程类型 virtual fixed
+	 * @param name 名称
+	 * @return 类型
+	 */
+	public static String getScheduledType(String name) {
+		return Params.getString(Params.getKey("scheduled", name, "type"), "fixed");
+	}
+
 	/**
 	 * 获得定时任务池是否守护线程
 	 * @param name 名称
@@ -85,6 +102,15 @@ public final class CommonParams {
 		return Params.getInt(Params.getKey("executor", name, "pool"), SystemConstants.CPU_NUM);
 	}
 
+	/**
+	 * 获得线程池类型 virtual fixed forkjoin
+	 * @param name 名称
+	 * @return 类型
+	 */
+	public static String getExecutorType(String name) {
+		return Params.getString(Params.getKey("executor", name, "type"), "fixed");
+	}
+
 	/**
 	 * 获得线程是否守护线程
 	 * @param name 名称
@@ -0,0 +1,113 @@
+package com.weicoder.common.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import com.weicoder.common.util.ClassUtil;
+
+/**
+ * 编译时生成注解索引 写入META-INF/weicoder/annotations.index 每行为 注解类=被注解类<br/>
+ * 只索引运行时保留的非java包注解 ClassUtil.getAnnotationClass优先读取索引 没有索引时扫描类路径
+ * @author WD
+ */
+@SupportedAnnotationTypes("*")
+public final class IndexProcessor extends AbstractProcessor {
+	// 注解类-被注解类列表
+	private Map<String, Set<String>>	index	= new TreeMap<>();
+	// 本次编译的类
+	private Set<String>					types	= new TreeSet<>();
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment env) {
+		// 最后一轮写入索引
+		if (env.processingOver())
+			write();
+		else
+			// 循环本轮的类 包括内部类
+			for (Element e : env.getRootElements())
+				add(e);
+		// 不占用注解 其它处理器继续处理
+		return false;
+	}
+
+	/**
+	 * 添加类和内部类的注解
+	 * @param e 元素
+	 */
+	private void add(Element e) {
+		// 不是类型
+		if (!(e instanceof TypeElement))
+			return;
+		// 获得类名
+		String name = processingEnv.getElementUtils().getBinaryName((TypeElement) e).toString();
+		// 记录本次编译的类
+		types.add(name);
+		// 循环注解
+		for (AnnotationMirror m : e.getAnnotationMirrors()) {
+			Element a = m.getAnnotationType().asElement();
+			String annotation = processingEnv.getElementUtils().getBinaryName((TypeElement) a).toString();
+			// 运行时保留的注解才添加
+			Retention r = a.getAnnotation(Retention.class);
+			if (!annotation.startsWith("java.") && r != null && r.value() == RetentionPolicy.RUNTIME)
+				index.computeIfAbsent(annotation, k -> new TreeSet<>()).add(name);
+		}
+		// 内部类
+		for (Element i : e.getEnclosedElements())
+			add(i);
+	}
+
+	/**
+	 * 写入索引 合并增量编译前的索引 去掉已经不存在和本次重新编译的类
+	 */
+	private void write() {
+		// 读取已有索引
+		try {
+			FileObject f = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", ClassUtil.INDEX);
+			try (BufferedReader in = new BufferedReader(f.openReader(true))) {
+				for (String line; (line = in.readLine()) != null;) {
+					int i = line.indexOf('=');
+					String name = line.substring(i + 1).trim();
+					if (i > 0 && !types.contains(name) && processingEnv.getElementUtils().getTypeElement(name.replace('$', '.')) != null)
+						index.computeIfAbsent(line.substring(0, i).trim(), k -> new TreeSet<>()).add(name);
+				}
+			}
+		} catch (IOException | IllegalArgumentException e) {}
+		// 没有注解类不生成索引
+		if (index.isEmpty())
+			return;
+		// 写入索引
+		try {
+			FileObject f = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", ClassUtil.INDEX);
+			try (Writer out = f.openWriter()) {
+				for (Map.Entry<String, Set<String>> e : index.entrySet())
+					for (String name : e.getValue())
+						out.write(e.getKey() + "=" + name + "\n");
+			}
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "weicoder annotation index: " + e.getMessage());
+		}
+	}
+}
@@ -11,7 +11,9 @@ import com.weicoder.common.log.LogFactory;
 /**
  * 异步回调处理队列数据
  * @author WD
+ * @deprecated 无界队列并且固定间隔回调 使用core包的com.weicoder.core.queue.BatchQueue
  */
+@Deprecated
 public class AsynQueue<E> {
 	// 日志
 	private final static Log	LOG	= LogFactory.getLog(AsynQueue.class);
@@ -0,0 +1,66 @@
+package com.weicoder.common.util;
+
+import java.util.List;
+import java.util.Map;
+
+import com.weicoder.common.lang.Lists;
+import com.weicoder.common.log.Logs;
+
+/**
+ * Bean拷贝器 源类到目标类的同名字段对应关系只解析一次
+ * @author WD
+ */
+final class BeanCopier {
+	// 源字段
+	private final BeanField[]	from;
+	// 目标字段 与源字段下标对应
+	private final BeanField[]	to;
+
+	/**
+	 * 构造 匹配同名字段
+	 * @param source 源类元数据
+	 * @param target 目标类元数据
+	 */
+	BeanCopier(BeanMeta source, BeanMeta target) {
+		List<BeanField> f = Lists.newList();
+		List<BeanField> t = Lists.newList();
+		for (BeanField s : source.copies) {
+			BeanField d = target.field(s.name);
+			if (d != null && !d.statics) {
+				f.add(s);
+				t.add(d);
+			}
+		}
+		from = f.toArray(new BeanField[f.size()]);
+		to = t.toArray(new BeanField[t.size()]);
+	}
+
+	/**
+	 * 拷贝同名字段值
+	 * @param source 源对象
+	 * @param target 目标对象
+	 */
+	void copy(Object source, Object target) {
+		for (int i = 0; i < from.length; i++)
+			try {
+				to[i].set(target, from[i].get(source));
+			} catch (Throwable e) {
+				Logs.error(e);
+			}
+	}
+
+	/**
+	 * 拷贝字段值到Map
+	 * @param source 源对象
+	 * @param fields 源字段
+	 * @param map 目标Map
+	 */
+	static void copy(Object source, BeanField[] fields, Map<String, Object> map) {
+		for (BeanField f : fields)
+			try {
+				map.put(f.name, f.get(source));
+			} catch (Throwable e) {
+				Logs.error(e);
+			}
+	}
+}
@@ -0,0 +1,84 @@
+package com.weicoder.common.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import com.weicoder.common.lang.Conversion;
+
+/**
+ * Bean字段访问器 字段的读写编译成MethodHandle 无法编译的字段退回反射
+ * @author WD
+ */
+final class BeanField {
+	// 查找MethodHandle
+	private final static MethodHandles.Lookup	LOOKUP	= MethodHandles.lookup();
+	// 读取字段值类型
+	private final static MethodType				GET		= MethodType.methodType(Object.class, Object.class);
+	// 设置字段值类型
+	private final static MethodType				SET		= MethodType.methodType(void.class, Object.class, Object.class);
+	// 字段
+	final Field									field;
+	// 字段名
+	final String								name;
+	// 字段类型
+	final Class<?>								type;
+	// 是否静态字段
+	final boolean								statics;
+	// 读取字段值 (Object)Object
+	private MethodHandle						get;
+	// 设置字段值 (Object,Object)void
+	private MethodHandle						set;
+
+	/**
+	 * 构造
+	 * @param field 字段
+	 */
+	BeanField(Field field) {
+		this.field = field;
+		this.name = field.getName();
+		this.type = field.getType();
+		this.statics = Modifier.isStatic(field.getModifiers());
+		try {
+			// 设置可访问 JDK内部类会失败 退回反射
+			field.setAccessible(true);
+			// 读取字段值 静态字段忽略对象参数
+			MethodHandle h = LOOKUP.unreflectGetter(field);
+			get = (statics ? MethodHandles.dropArguments(h, 0, Object.class) : h).asType(GET);
+			// 设置字段值 final字段会失败 不能设置
+			h = LOOKUP.unreflectSetter(field);
+			set = (statics ? MethodHandles.dropArguments(h, 0, Object.class) : h).asType(SET);
+		} catch (Exception e) {}
+	}
+
+	/**
+	 * 读取字段值
+	 * @param object 对象
+	 * @return 字段值
+	 * @throws Throwable 异常
+	 */
+	Object get(Object object) throws Throwable {
+		return get == null ? field.get(object) : (Object) get.invokeExact(object);
+	}
+
+	/**
+	 * 设置字段值 值会转换成字段类型 值为null不设置
+	 * @param object 对象
+	 * @param value 值
+	 * @throws Throwable 异常
+	 */
+	void set(Object object, Object value) throws Throwable {
+		// 值为空不设置
+		if (value == null)
+			return;
+		// 转换成字段类型
+		value = Conversion.to(value, type);
+		// 设置字段值
+		if (set == null)
+			field.set(object, value);
+		else
+			set.invokeExact(object, value);
+	}
+}
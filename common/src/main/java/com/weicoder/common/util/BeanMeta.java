@@ -0,0 +1,157 @@
+package com.weicoder.common.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.weicoder.common.lang.Lists;
+import com.weicoder.common.lang.Maps;
+
+/**
+ * Bean类元数据 每个类只解析一次 缓存字段列表 字段访问器 无参构造和拷贝器
+ * @author WD
+ */
+final class BeanMeta {
+	// 按类缓存元数据
+	private final static Map<Class<?>, BeanMeta>	METAS	= Maps.newConcurrentMap();
+	// 类
+	final Class<?>									type;
+	// 本类和父类声明的全部字段 子类在前 只读
+	final List<Field>								fields;
+	// 可拷贝的字段 非静态非复合字段 同名只保留子类字段
+	final BeanField[]								copies;
+	// 按字段名查找访问器 同名字段为子类字段
+	private final Map<String, BeanField>			names;
+	// 按字段查找访问器
+	private final Map<Field, BeanField>				accessors;
+	// 目标类对应的拷贝器
+	private final Map<Class<?>, BeanCopier>			copiers;
+	// 无参构造
+	private MethodHandle							constructor;
+
+	/**
+	 * 获得类的元数据
+	 * @param c 类
+	 * @return 元数据
+	 */
+	static BeanMeta get(Class<?> c) {
+		BeanMeta m = METAS.get(c);
+		if (m == null) {
+			m = new BeanMeta(c);
+			BeanMeta o = METAS.putIfAbsent(c, m);
+			if (o != null)
+				m = o;
+		}
+		return m;
+	}
+
+	/**
+	 * 构造 解析字段
+	 * @param type 类
+	 */
+	private BeanMeta(Class<?> type) {
+		this.type = type;
+		this.names = Maps.newMap();
+		this.accessors = Maps.newMap();
+		this.copiers = Maps.newConcurrentMap();
+		// 循环对象类 获得字段
+		List<Field> list = Lists.newList();
+		for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass())
+			try {
+				list.addAll(Lists.newList(c.getDeclaredFields()));
+			} catch (Exception e) {}
+		this.fields = Collections.unmodifiableList(list);
+		// 生成访问器
+		List<BeanField> ls = Lists.newList();
+		for (Field f : list) {
+			BeanField b = new BeanField(f);
+			accessors.put(f, b);
+			// 同名字段保留子类
+			if (!names.containsKey(b.name)) {
+				names.put(b.name, b);
+				if (!b.statics && !f.isSynthetic())
+					ls.add(b);
+			}
+		}
+		this.copies = ls.toArray(new BeanField[ls.size()]);
+		// 无参构造
+		try {
+			Constructor<?> c = type.getDeclaredConstructor();
+			c.setAccessible(true);
+			constructor = MethodHandles.lookup().unreflectConstructor(c).asType(MethodType.methodType(Object.class));
+		} catch (Exception e) {
+			constructor = null;
+		}
+	}
+
+	/**
+	 * 按字段名获得访问器 包括父类字段
+	 * @param name 字段名
+	 * @return 访问器 没有返回null
+	 */
+	BeanField field(String name) {
+		return names.get(name);
+	}
+
+	/**
+	 * 按字段获得访问器
+	 * @param field 字段
+	 * @return 访问器 不是本类字段返回null
+	 */
+	BeanField field(Field field) {
+		return accessors.get(field);
+	}
+
+	/**
+	 * 实例化对象
+	 * @return 对象
+	 * @throws Throwable 没有无参构造或构造异常
+	 */
+	Object newInstance() throws Throwable {
+		if (constructor == null)
+			throw new NoSuchMethodException(type.getName() + ".<init>()");
+		return (Object) constructor.invokeExact();
+	}
+
+	/**
+	 * 获得拷贝到目标类的拷贝器
+	 * @param target 目标类
+	 * @return 拷贝器
+	 */
+	BeanCopier copier(Class<?> target) {
+		BeanCopier c = copiers.get(target);
+		if (c == null) {
+			c = new BeanCopier(this, get(target));
+			BeanCopier o = copiers.putIfAbsent(target, c);
+			if (o != null)
+				c = o;
+		}
+		return c;
+	}
+
+	/**
+	 * 把Map的值按同名字段设置到对象 Map较小时按Map查找字段 否则按字段查找Map
+	 * @param map 源Map
+	 * @param dest 目标对象
+	 */
+	void copy(Map<?, ?> map, Object dest) {
+		if (map.size() < copies.length)
+			map.forEach((k, v) -> {
+				BeanField f = k instanceof String ? names.get(k) : null;
+				if (f != null && !f.statics && !f.field.isSynthetic())
+					try {
+						f.set(dest, v);
+					} catch (Throwable e) {}
+			});
+		else
+			for (BeanField f : copies)
+				try {
+					f.set(dest, map.get(f.name));
+				} catch (Throwable e) {}
+	}
+}
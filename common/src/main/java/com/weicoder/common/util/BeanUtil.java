@@ -10,7 +10,6 @@ import java.util.Map;
 
 import com.weicoder.common.constants.StringConstants;
 
-import com.weicoder.common.lang.Conversion;
 import com.weicoder.common.lang.Lists;
 import com.weicoder.common.log.Logs;
 
@@ -45,23 +44,14 @@ public final class BeanUtil {
 		// 如果源为Map
 		if (source instanceof Map<?, ?>)
 			return copy((Map<?, ?>) source, target);
-		// 如果目标为Map
-		Map<String, Object> map = null;
+		// 源类元数据
+		BeanMeta meta = BeanMeta.get(source.getClass());
+		// 如果目标为Map 拷贝非静态字段到Map
 		if (target instanceof Map<?, ?>)
-			map = (Map<String, Object>) target;
-		// 循环字段
-		for (Field field : getFields(source.getClass()))
-			try {
-				// 不是符合字段
-				if (!field.isSynthetic())
-					// 设置字段值
-					if (map == null)
-						setFieldValue(target, getField(target, field.getName()), getFieldValue(source, field));
-					else
-						map.put(field.getName(), getFieldValue(source, field));
-			} catch (Exception e) {
-				Logs.error(e);
-			}
+			BeanCopier.copy(source, meta.copies, (Map<String, Object>) target);
+		else
+			// 使用缓存的拷贝器拷贝同名字段
+			meta.copier(target.getClass()).copy(source, target);
 		// 返回对象
 		return target;
 	}
@@ -74,17 +64,11 @@ public final class BeanUtil {
 	 * @return dest 目标对象
 	 */
 	public static <T> T copy(Map<?, ?> map, T dest) {
-		// 循环字段
-		getFields(dest.getClass()).forEach(field -> {
-			try {
-				// 不是复合字段
-				if (!field.isSynthetic()) {
-					// 设置字段值
-					String name = field.getName();
-					setFieldValue(dest, getField(dest, name), map.get(name));
-				}
-			} catch (Exception e) {}
-		});
+		// 判读对象为空
+		if (map == null || dest == null)
+			return dest;
+		// 按同名字段设置值
+		BeanMeta.get(dest.getClass()).copy(map, dest);
 		// 返回对象
 		return dest;
 	}
@@ -127,10 +111,17 @@ public final class BeanUtil {
 	 * @param <T> 泛型
 	 * @return 实例的对象
 	 */
-	public static <T> T newInstance(Class<T> entity,Class<?>... parameterTypes) {
+	@SuppressWarnings("unchecked")
+	public static <T> T newInstance(Class<T> entity, Class<?>... parameterTypes) {
 		try {
-			return entity == null ? null : entity.getDeclaredConstructor(parameterTypes).newInstance();
-		} catch (Exception e) {
+			// 类为空
+			if (entity == null)
+				return null;
+			// 无参构造使用缓存的构造
+			if (EmptyUtil.isEmpty(parameterTypes))
+				return (T) BeanMeta.get(entity).newInstance();
+			return entity.getDeclaredConstructor(parameterTypes).newInstance();
+		} catch (Throwable e) {
 			Logs.error(e);
 			return null;
 		}
@@ -197,15 +188,18 @@ public final class BeanUtil {
 		// 如果有复杂字段
 		if (fieldName.indexOf(StringConstants.POINT) > -1)
 			return getFieldValue(getFieldValue(object, StringUtil.subStringEnd(fieldName, StringConstants.POINT)), StringUtil.subString(fieldName, StringConstants.POINT));
+		// 判断对象为空 返回null
+		if (object == null)
+			return null;
 		// 获得字段
-		Field field = getField(object, fieldName);
+		BeanField field = BeanMeta.get(object.getClass()).field(fieldName);
 		// 判断字段为空 返回null
-		if (EmptyUtil.isEmpty(field))
+		if (field == null)
 			return null;
 		try {
 			// 获得字段值
-			return makeAccessible(field).get(object);
-		} catch (IllegalAccessException e) {
+			return field.get(object);
+		} catch (Throwable e) {
 			Logs.error(e);
 			return null;
 		}
@@ -223,8 +217,8 @@ public final class BeanUtil {
 			return null;
 		try {
 			// 获得字段值
-			return makeAccessible(field).get(object);
-		} catch (IllegalAccessException e) {
+			return accessor(field).get(object);
+		} catch (Throwable e) {
 			Logs.error(e);
 			return null;
 		}
@@ -237,7 +231,19 @@ public final class BeanUtil {
 	 * @param value 值
 	 */
 	public static void setFieldValue(Object object, String fieldName, Object value) {
-		setFieldValue(object, getField(object, fieldName), value);
+		// 判断对象为空 返回
+		if (object == null || value == null)
+			return;
+		// 复杂字段按字段查找
+		if (fieldName.indexOf(StringConstants.POINT) > -1)
+			setFieldValue(object, getField(object, fieldName), value);
+		else
+			try {
+				// 设置字段值
+				BeanField field = BeanMeta.get(object.getClass()).field(fieldName);
+				if (field != null)
+					field.set(object, value);
+			} catch (Throwable e) {}
 	}
 
 	/**
@@ -252,8 +258,8 @@ public final class BeanUtil {
 			return;
 		// 设置字段值
 		try {
-			makeAccessible(field).set(object, Conversion.to(value, field.getType()));
-		} catch (Exception e) {}
+			accessor(field).set(object, value);
+		} catch (Throwable e) {}
 	}
 
 	/**
@@ -332,37 +338,23 @@ public final class BeanUtil {
 		// 如果有复杂字段
 		if (name.indexOf(StringConstants.POINT) > -1)
 			return getField(getField(clazz, StringUtil.subStringEnd(name, StringConstants.POINT)), StringUtil.subString(name, StringConstants.POINT));
-		// 声明字段
-		Field f = null;
-		// 循环对象类
-		for (; clazz != Object.class && f == null; clazz = clazz.getSuperclass())
-			try {
-				// 获得字段
-				f = clazz.getDeclaredField(name);
-			} catch (Exception e) {}
-		// 返回null
-		return f;
+		// 获得缓存的字段
+		BeanField f = BeanMeta.get(clazz).field(name);
+		// 返回字段
+		return f == null ? null : f.field;
 	}
 
 	/**
-	 * 循环向上转型, 获取对象的DeclaredField. 如向上转型到Object仍无法找到, 返回null.
+	 * 循环向上转型, 获取对象的DeclaredField. 每个类只解析一次
 	 * @param clazz 类
-	 * @return 列表
+	 * @return 只读列表 子类字段在前
 	 */
 	public static List<Field> getFields(Class<?> clazz) {
 		// 判断对象和字段名是否为空
 		if (EmptyUtil.isEmpty(clazz))
 			return Lists.emptyList();
-		// 声明列表
-		List<Field> fields = Lists.newList();
-		// 循环对象类
-		for (; clazz != Object.class; clazz = clazz.getSuperclass())
-			try {
-				// 添加字段列表
-				fields.addAll(Lists.newList(clazz.getDeclaredFields()));
-			} catch (Exception e) {}
-		// 没有找到返回null
-		return fields;
+		// 返回缓存的字段列表
+		return BeanMeta.get(clazz).fields;
 	}
 
 	/**
@@ -389,17 +381,15 @@ public final class BeanUtil {
 	}
 
 	/**
-	 * 强行设置Field可访问.
+	 * 获得字段的访问器
 	 * @param field 字段
-	 * @return 字段
+	 * @return 访问器
 	 */
-	private static Field makeAccessible(Field field) {
-		// 判断字段是否公有
-		if (!Modifier.isPublic(field.getModifiers()) || !Modifier.isPublic(field.getDeclaringClass().getModifiers()))
-			// 设置可访问
-			field.setAccessible(true);
-		// 返回字段
-		return field;
+	private static BeanField accessor(Field field) {
+		// 获得声明类缓存的访问器
+		BeanField f = BeanMeta.get(field.getDeclaringClass()).field(field);
+		// 返回访问器
+		return f == null ? new BeanField(field) : f;
 	}
 
 	/**
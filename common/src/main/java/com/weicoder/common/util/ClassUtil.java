@@ -1,26 +1,40 @@
 package com.weicoder.common.util;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.math.BigDecimal;
+import java.net.JarURLConnection;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
 import java.util.List;
+import java.util.Map;
 import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
 import java.util.jar.JarInputStream;
 
 import com.weicoder.common.constants.StringConstants;
 import com.weicoder.common.lang.Lists;
+import com.weicoder.common.lang.Maps;
 import com.weicoder.common.log.Logs;
+import com.weicoder.common.params.CommonParams;
 
 /**
  * 关于Class的一些操作
  * @author WD
  */
 public final class ClassUtil {
+	/** 编译时生成的注解索引文件 */
+	public final static String										INDEX	= "META-INF/weicoder/annotations.index";
+	// 注解索引 类路径根-注解类-被注解类名列表 索引只对所在的根有效
+	private static volatile Map<String, Map<String, List<String>>>	indexes;
+
 	/**
 	 * 判断是否是基础类型
 	 * @param clazz 要检查的类
@@ -257,15 +271,163 @@ public final class ClassUtil {
 	public static <E extends Annotation> List<Class<E>> getAnnotationClass(String packageName, Class<E> cls) {
 		// 声明类列表
 		List<Class<E>> classes = Lists.newList();
-		// 循环包下所有类
-		for (Class<?> c : getPackageClasses(packageName, cls))
-			// 是本类实现 并且不是本类
-			if (c.isAnnotationPresent(cls) && !cls.equals(c))
-				classes.add((Class<E>) c);
+		// 循环包 有索引的包读取索引 否则扫描包下所有类
+		for (String path : StringUtil.split(packageName, StringConstants.COMMA)) {
+			List<String> names = getIndexClasses(path, cls);
+			for (Class<?> c : names == null ? getPackageClasses(path, cls) : forNames(names))
+				// 是本类实现 并且不是本类
+				if (c.isAnnotationPresent(cls) && !cls.equals(c))
+					classes.add((Class<E>) c);
+		}
 		// 返回列表
 		return classes;
 	}
 
+	/**
+	 * 从注解索引获得包下被注解的类名 按类路径根处理 有索引的根读取索引 没有索引的根扫描
+	 * @param packageName 包名
+	 * @param cls 注解
+	 * @return 类名列表 不使用索引或类路径下没有索引返回null
+	 */
+	private static List<String> getIndexClasses(String packageName, Class<? extends Annotation> cls) {
+		// 不使用索引 或没有包名
+		if (!CommonParams.CLASS_INDEX || EmptyUtil.isEmpty(packageName))
+			return null;
+		// 获得索引
+		Map<String, Map<String, List<String>>> index = getIndexes();
+		if (index.isEmpty())
+			return null;
+		// 包前缀与路径
+		String prefix = packageName + StringConstants.POINT;
+		String dir = StringUtil.replace(packageName, StringConstants.POINT, StringConstants.BACKSLASH);
+		// 循环包所在的所有类路径根
+		List<String> names = Lists.newList();
+		for (URL url : ResourceUtil.getResources(dir)) {
+			Map<String, List<String>> root = index.get(root(url.toString(), dir));
+			// 根下没有索引 可能未使用注解处理器编译 扫描这个根
+			if (root == null)
+				scan(url, dir, names);
+			else
+				root.getOrDefault(cls.getName(), Lists.emptyList()).forEach(n -> {
+					if (n.startsWith(prefix))
+						names.add(n);
+				});
+		}
+		return names;
+	}
+
+	/**
+	 * 读取类路径下全部注解索引 按所在的类路径根保存 只读取一次
+	 * @return 注解索引
+	 */
+	private static Map<String, Map<String, List<String>>> getIndexes() {
+		// 已读取
+		if (indexes != null)
+			return indexes;
+		// 声明索引
+		Map<String, Map<String, List<String>>> index = Maps.newMap();
+		try {
+			// 循环所有索引文件
+			for (URL url : ResourceUtil.getResources(INDEX))
+				try (BufferedReader in = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+					Map<String, List<String>> root = index.computeIfAbsent(root(url.toString(), INDEX), k -> Maps.newMap());
+					for (String line; (line = in.readLine()) != null;) {
+						int i = line.indexOf('=');
+						if (i > 0)
+							Maps.getList(root, line.substring(0, i).trim(), String.class).add(line.substring(i + 1).trim());
+					}
+				}
+		} catch (IOException e) {
+			Logs.error(e);
+		}
+		// 返回索引
+		return indexes = index;
+	}
+
+	/**
+	 * 获得资源所在的类路径根 jar为jar:file:/x.jar!/ 目录为file:/x/classes/
+	 * @param url 资源URL
+	 * @param name 资源名
+	 * @return 类路径根
+	 */
+	private static String root(String url, String name) {
+		// 目录资源可能以/结尾
+		if (url.endsWith(StringConstants.BACKSLASH))
+			url = url.substring(0, url.length() - 1);
+		return url.endsWith(name) ? url.substring(0, url.length() - name.length()) : url;
+	}
+
+	/**
+	 * 扫描一个类路径根下包的所有类名 包括子包
+	 * @param url 包的URL
+	 * @param dir 包路径
+	 * @param names 类名列表
+	 */
+	private static void scan(URL url, String dir, List<String> names) {
+		try {
+			if ("jar".equals(url.getProtocol())) {
+				// jar内 只读取这个jar
+				JarURLConnection conn = (JarURLConnection) url.openConnection();
+				conn.setUseCaches(false);
+				String prefix = dir + StringConstants.BACKSLASH;
+				try (JarFile jar = conn.getJarFile()) {
+					for (Enumeration<JarEntry> e = jar.entries(); e.hasMoreElements();) {
+						String name = e.nextElement().getName();
+						if (name.startsWith(prefix))
+							add(name, names);
+					}
+				}
+			} else if ("file".equals(url.getProtocol()))
+				// 目录
+				scan(new File(url.toURI()), dir, names);
+		} catch (Exception e) {
+			Logs.error(e);
+		}
+	}
+
+	/**
+	 * 扫描目录下的所有类名 包括子目录
+	 * @param file 目录
+	 * @param dir 目录对应的包路径
+	 * @param names 类名列表
+	 */
+	private static void scan(File file, String dir, List<String> names) {
+		File[] files = file.listFiles();
+		if (files != null)
+			for (File f : files)
+				if (f.isDirectory())
+					scan(f, dir + StringConstants.BACKSLASH + f.getName(), names);
+				else
+					add(dir + StringConstants.BACKSLASH + f.getName(), names);
+	}
+
+	/**
+	 * 添加class文件对应的类名 跳过package-info与module-info
+	 * @param name 文件路径
+	 * @param names 类名列表
+	 */
+	private static void add(String name, List<String> names) {
+		if (name.endsWith(".class") && name.indexOf('-') == -1)
+			names.add(StringUtil.replace(name.substring(0, name.length() - 6), StringConstants.BACKSLASH, StringConstants.POINT));
+	}
+
+	/**
+	 * 加载类名列表 无法加载的类忽略
+	 * @param names 类名
+	 * @return 类列表
+	 */
+	private static List<Class<?>> forNames(List<String> names) {
+		List<Class<?>> classes = Lists.newList(names.size());
+		for (String name : names) {
+			Class<?> c = forName(name);
+			if (c == null)
+				Logs.warn("class index not found class={}", name);
+			else
+				classes.add(c);
+		}
+		return classes;
+	}
+
 	/**
 	 * 获得指定包下的所有Class
 	 * @param packageName 报名
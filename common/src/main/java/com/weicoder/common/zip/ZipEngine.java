@@ -2,23 +2,42 @@ package com.weicoder.common.zip;
 
 import com.weicoder.common.constants.ArrayConstants;
 import com.weicoder.common.lang.Bytes;
+import com.weicoder.common.params.CommonParams;
 import com.weicoder.common.zip.impl.GzipImpl;
+import com.weicoder.common.zip.impl.Lz4Impl;
+import com.weicoder.common.zip.impl.SnappyImpl;
 import com.weicoder.common.zip.impl.ZipImpl;
 import com.weicoder.common.zip.impl.ZlibImpl;
+import com.weicoder.common.zip.impl.ZstdImpl;
 
 /**
- * 压缩引擎
+ * 压缩引擎 按配置zip选择算法 压缩数据带算法头 解压时按头自动识别<br/>
+ * zlib数据本身的头即可识别 不另加头 与之前的数据兼容 lz4 snappy zstd加一个字节的头
  * @author WD
  */
 public final class ZipEngine {
 	/** Zlib压缩器 */
-	public final static Zip		ZLIB	= new ZlibImpl();
+	public final static Zip		ZLIB		= new ZlibImpl(CommonParams.ZIP_LEVEL);
 	/** gzip压缩器 */
-	public final static Zip		GZIP	= new GzipImpl();
+	public final static Zip		GZIP		= new GzipImpl();
 	/** zip压缩器 */
-	public final static Zip		ZIP		= new ZipImpl();
+	public final static Zip		ZIP			= new ZipImpl();
+	/** lz4压缩器 需要lz4-java */
+	public final static Zip		LZ4			= new Lz4Impl(CommonParams.ZIP_LEVEL);
+	/** snappy压缩器 需要snappy-java */
+	public final static Zip		SNAPPY		= new SnappyImpl();
+	/** zstd压缩器 需要zstd-jni */
+	public final static Zip		ZSTD		= new ZstdImpl(CommonParams.ZIP_LEVEL);
+	/** lz4数据头 */
+	public final static byte	HEAD_LZ4	= (byte) 0xF1;
+	/** snappy数据头 */
+	public final static byte	HEAD_SNAPPY	= (byte) 0xF2;
+	/** zstd数据头 */
+	public final static byte	HEAD_ZSTD	= (byte) 0xF3;
 	// 压缩器
-	private final static Zip	Z		= ZLIB;
+	private final static Zip	Z			= get(CommonParams.ZIP);
+	// 压缩器数据头 zlib为0不加头
+	private final static byte	HEAD		= head(Z);
 
 	/**
 	 * 压缩数据
@@ -26,17 +45,96 @@ public final class ZipEngine {
 	 * @return 压缩后的字节数组或则原对象的字节数组
 	 */
 	public static byte[] compress(Object obj) {
-		return obj == null ? ArrayConstants.BYTES_EMPTY : Z.compress(Bytes.toBytes(obj));
+		if (obj == null)
+			return ArrayConstants.BYTES_EMPTY;
+		byte[] b = Bytes.toBytes(obj);
+		byte[] data = Z.compress(b);
+		// 没有压缩或者zlib 直接返回
+		if (data == b || HEAD == 0)
+			return data;
+		// 加上数据头
+		byte[] r = new byte[data.length + 1];
+		r[0] = HEAD;
+		System.arraycopy(data, 0, r, 1, data.length);
+		return r;
 	}
 
 	/**
-	 * 解压数据
+	 * 解压数据 按数据头识别压缩算法 无法识别或解压失败返回原数据
 	 * @param obj 要解压的对象
 	 * @return 解压后数据
 	 */
 	public static byte[] extract(Object obj) {
-		return obj == null ? ArrayConstants.BYTES_EMPTY : Z.extract(Bytes.toBytes(obj));
+		if (obj == null)
+			return ArrayConstants.BYTES_EMPTY;
+		byte[] b = Bytes.toBytes(obj);
+		if (b.length < 2)
+			return b;
+		// 按数据头选择解压器
+		Zip z = null;
+		switch (b[0]) {
+			case HEAD_LZ4:
+				z = LZ4;
+				break;
+			case HEAD_SNAPPY:
+				z = SNAPPY;
+				break;
+			case HEAD_ZSTD:
+				z = ZSTD;
+				break;
+			default:
+				// gzip头
+				if (b[0] == 0x1F && b[1] == (byte) 0x8B)
+					return GZIP.extract(b);
+				// zip头
+				if (b[0] == 'P' && b[1] == 'K')
+					return ZIP.extract(b);
+				// zlib头 CMF为deflate并且校验位正确
+				return (b[0] & 0x0F) == 8 && ((b[0] & 0xFF) << 8 | b[1] & 0xFF) % 31 == 0 ? ZLIB.extract(b) : b;
+		}
+		// 去掉数据头解压 失败返回原数据
+		byte[] data = new byte[b.length - 1];
+		System.arraycopy(b, 1, data, 0, data.length);
+		byte[] r = z.extract(data);
+		return r == data ? b : r;
+	}
+
+	/**
+	 * 按名称获得压缩器
+	 * @param name zlib gzip zip lz4 snappy zstd
+	 * @return 压缩器 未知名称返回zlib
+	 */
+	public static Zip get(String name) {
+		switch (name) {
+			case "gzip":
+				return GZIP;
+			case "zip":
+				return ZIP;
+			case "lz4":
+				return LZ4;
+			case "snappy":
+				return SNAPPY;
+			case "zstd":
+				return ZSTD;
+			default:
+				return ZLIB;
+		}
+	}
+
+	/**
+	 * 获得压缩器数据头
+	 * @param z 压缩器
+	 * @return 数据头 不需要头时为0
+	 */
+	private static byte head(Zip z) {
+		if (z == LZ4)
+			return HEAD_LZ4;
+		if (z == SNAPPY)
+			return HEAD_SNAPPY;
+		if (z == ZSTD)
+			return HEAD_ZSTD;
+		return 0;
 	}
 
 	private ZipEngine() {}
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.weicoder.common.zip.base;
 
+import com.weicoder.common.params.CommonParams;
 import com.weicoder.common.util.EmptyUtil;
 import com.weicoder.common.zip.Zip;
 
@@ -16,7 +17,7 @@ public abstract class BaseZip implements Zip {
 			byte[] data = compress0(b);
 			// 如果压缩比原始数据大 返回原始数据
 			return data.length >= b.length ? b : data;
-		} catch (Exception e) {
+		} catch (Throwable e) {
 			// 如果压缩异常 返回原数据
 			return b;
 		}
@@ -29,7 +30,7 @@ public abstract class BaseZip implements Zip {
 			byte[] data = extract0(b);
 			// 如果解压缩的为空 返回原数据
 			return EmptyUtil.isEmpty(data) ? b : data;
-		} catch (Exception e) {
+		} catch (Throwable e) {
 			// 如果异常或则无法解压 返回原数据
 			return b;
 		}
@@ -39,15 +40,26 @@ public abstract class BaseZip implements Zip {
 	 * 实际压缩算法的实现
 	 * @param b 字节数组
 	 * @return 压缩后数据
-	 * @throws Exception 抛出的异常
+	 * @throws Throwable 抛出的异常
 	 */
-	protected abstract byte[] compress0(byte[] b) throws Exception;
+	protected abstract byte[] compress0(byte[] b) throws Throwable;
 
 	/**
 	 * 实际的解压缩算法
 	 * @param b 字节数组
 	 * @return 压缩后数据
-	 * @throws Exception 抛出的异常
+	 * @throws Throwable 抛出的异常
 	 */
-	protected abstract byte[] extract0(byte[] b) throws Exception;
+	protected abstract byte[] extract0(byte[] b) throws Throwable;
+
+	/**
+	 * 检查数据中声明的解压长度 不能为负数或超过zip.max
+	 * @param len 解压长度
+	 * @return 解压长度
+	 */
+	protected static int length(long len) {
+		if (len < 0 || len > CommonParams.ZIP_MAX)
+			throw new IllegalArgumentException("zip extract length error len=" + len + ";max=" + CommonParams.ZIP_MAX);
+		return (int) len;
+	}
 }
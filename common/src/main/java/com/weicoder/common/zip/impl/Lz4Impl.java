@@ -0,0 +1,65 @@
+package com.weicoder.common.zip.impl;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
+import com.weicoder.common.lang.Bytes;
+import com.weicoder.common.util.ClassUtil;
+import com.weicoder.common.zip.base.BaseZip;
+
+/**
+ * LZ4压缩 需要lz4-java 数据前4字节为原始长度 没有依赖时不压缩
+ * @author WD
+ */
+public final class Lz4Impl extends BaseZip {
+	// 压缩 byte[] compress(byte[])
+	private MethodHandle	compress;
+	// 解压 int decompress(byte[] src, int srcOff, byte[] dest, int destOff, int destLen)
+	private MethodHandle	decompress;
+
+	/**
+	 * 构造
+	 * @param level 压缩级别 大于0时使用高压缩率模式
+	 */
+	public Lz4Impl(int level) {
+		Class<?> c = ClassUtil.forName("net.jpountz.lz4.LZ4Factory");
+		if (c == null)
+			return;
+		try {
+			Object factory = c.getMethod("fastestInstance").invoke(null);
+			Object compressor = level > 0 ? c.getMethod("highCompressor", int.class).invoke(factory, level) : c.getMethod("fastCompressor").invoke(factory);
+			Object decompressor = c.getMethod("fastDecompressor").invoke(factory);
+			MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+			compress = lookup.unreflect(Class.forName("net.jpountz.lz4.LZ4Compressor").getMethod("compress", byte[].class)).bindTo(compressor);
+			decompress = lookup.unreflect(Class.forName("net.jpountz.lz4.LZ4FastDecompressor").getMethod("decompress", byte[].class, int.class, byte[].class, int.class, int.class)).bindTo(decompressor);
+		} catch (Exception e) {
+			compress = null;
+			decompress = null;
+		}
+	}
+
+	@Override
+	protected byte[] compress0(byte[] b) throws Throwable {
+		check();
+		return Bytes.toBytes(b.length, (byte[]) compress.invokeExact(b));
+	}
+
+	@Override
+	protected byte[] extract0(byte[] b) throws Throwable {
+		check();
+		// 原始长度由数据声明 分配前检查
+		byte[] data = new byte[length(Bytes.toInt(b))];
+		int n = (int) decompress.invokeExact(b, 4, data, 0, data.length);
+		if (n != b.length - 4)
+			throw new IllegalArgumentException("lz4 data length error");
+		return data;
+	}
+
+	/**
+	 * 检查是否有依赖
+	 */
+	private void check() {
+		if (compress == null)
+			throw new IllegalStateException("lz4-java not found");
+	}
+}
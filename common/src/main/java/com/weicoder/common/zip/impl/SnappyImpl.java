@@ -0,0 +1,62 @@
+package com.weicoder.common.zip.impl;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import com.weicoder.common.util.ClassUtil;
+import com.weicoder.common.zip.base.BaseZip;
+
+/**
+ * Snappy压缩 需要snappy-java 没有依赖时不压缩
+ * @author WD
+ */
+public final class SnappyImpl extends BaseZip {
+	// 压缩 byte[] compress(byte[])
+	private MethodHandle	compress;
+	// 解压 byte[] uncompress(byte[])
+	private MethodHandle	uncompress;
+	// 原始长度 int uncompressedLength(byte[])
+	private MethodHandle	length;
+
+	/**
+	 * 构造
+	 */
+	public SnappyImpl() {
+		Class<?> c = ClassUtil.forName("org.xerial.snappy.Snappy");
+		if (c == null)
+			return;
+		try {
+			MethodType type = MethodType.methodType(byte[].class, byte[].class);
+			compress = MethodHandles.publicLookup().findStatic(c, "compress", type);
+			uncompress = MethodHandles.publicLookup().findStatic(c, "uncompress", type);
+			length = MethodHandles.publicLookup().findStatic(c, "uncompressedLength", MethodType.methodType(int.class, byte[].class));
+		} catch (Exception e) {
+			compress = null;
+			uncompress = null;
+			length = null;
+		}
+	}
+
+	@Override
+	protected byte[] compress0(byte[] b) throws Throwable {
+		check();
+		return (byte[]) compress.invokeExact(b);
+	}
+
+	@Override
+	protected byte[] extract0(byte[] b) throws Throwable {
+		check();
+		// 原始长度由数据声明 解压前检查
+		length((int) length.invokeExact(b));
+		return (byte[]) uncompress.invokeExact(b);
+	}
+
+	/**
+	 * 检查是否有依赖
+	 */
+	private void check() {
+		if (compress == null)
+			throw new IllegalStateException("snappy-java not found");
+	}
+}
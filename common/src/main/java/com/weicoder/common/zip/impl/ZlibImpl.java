@@ -1,25 +1,90 @@
 package com.weicoder.common.zip.impl;
 
-import java.io.ByteArrayInputStream;
-import java.util.zip.DeflaterInputStream;
-import java.util.zip.InflaterInputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
-import com.weicoder.common.io.IOUtil;
+import com.weicoder.common.params.CommonParams;
 import com.weicoder.common.zip.base.BaseZip;
 
 /**
- * ZLIB压缩
+ * ZLIB压缩 每个线程复用Deflater Inflater和输出缓冲区 直接在字节数组上压缩解压
  * @author WD  
  */
 public final class ZlibImpl extends BaseZip {
+	// 线程缓冲区保留的最大长度 超过的缓冲区用完不保留
+	private final static int				MAX			= 1024 * 1024;
+	// 线程复用的解压器
+	private final static ThreadLocal<Inflater>	INFLATER	= ThreadLocal.withInitial(Inflater::new);
+	// 线程复用的输出缓冲区
+	private final static ThreadLocal<byte[]>	BUFFER		= ThreadLocal.withInitial(() -> new byte[CommonParams.IO_BUFFERSIZE]);
+	// 线程复用的压缩器
+	private final ThreadLocal<Deflater>			deflater;
+
+	/**
+	 * 使用默认压缩级别
+	 */
+	public ZlibImpl() {
+		this(Deflater.DEFAULT_COMPRESSION);
+	}
+
+	/**
+	 * 构造
+	 * @param level 压缩级别 0-9 -1为默认级别
+	 */
+	public ZlibImpl(int level) {
+		deflater = ThreadLocal.withInitial(() -> new Deflater(level));
+	}
 
 	@Override
 	protected byte[] compress0(byte[] b) throws Exception {
-		return IOUtil.read(new DeflaterInputStream(new ByteArrayInputStream(b)));
+		Deflater d = deflater.get();
+		d.reset();
+		d.setInput(b);
+		d.finish();
+		byte[] buf = BUFFER.get();
+		int len = 0;
+		while (!d.finished()) {
+			// 压缩后不比原数据小 不用继续压缩
+			if (len >= b.length)
+				return b;
+			if (len == buf.length)
+				buf = grow(buf);
+			len += d.deflate(buf, len, buf.length - len);
+		}
+		return Arrays.copyOf(buf, len);
 	}
 
 	@Override
 	protected byte[] extract0(byte[] b) throws Exception {
-		return IOUtil.read(new InflaterInputStream(new ByteArrayInputStream(b)));
+		Inflater i = INFLATER.get();
+		i.reset();
+		i.setInput(b);
+		byte[] buf = BUFFER.get();
+		int len = 0;
+		while (!i.finished()) {
+			if (len == buf.length)
+				buf = grow(buf);
+			int n = i.inflate(buf, len, buf.length - len);
+			// 数据不完整
+			if (n == 0 && (i.needsInput() || i.needsDictionary()))
+				throw new DataFormatException("zlib data incomplete");
+			// 解压长度不超过zip.max
+			len = length(len + (long) n);
+		}
+		return Arrays.copyOf(buf, len);
+	}
+
+	/**
+	 * 扩大缓冲区
+	 * @param buf 缓冲区
+	 * @return 新缓冲区
+	 */
+	private static byte[] grow(byte[] buf) {
+		byte[] b = Arrays.copyOf(buf, buf.length << 1);
+		if (b.length <= MAX)
+			BUFFER.set(b);
+		return b;
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,67 @@
+package com.weicoder.common.zip.impl;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import com.weicoder.common.util.ClassUtil;
+import com.weicoder.common.zip.base.BaseZip;
+
+/**
+ * Zstd压缩 需要zstd-jni 没有依赖时不压缩
+ * @author WD
+ */
+public final class ZstdImpl extends BaseZip {
+	// 压缩级别
+	private int				level;
+	// 压缩 byte[] compress(byte[], int)
+	private MethodHandle	compress;
+	// 原始长度 long decompressedSize(byte[])
+	private MethodHandle	size;
+	// 解压 byte[] decompress(byte[], int)
+	private MethodHandle	decompress;
+
+	/**
+	 * 构造
+	 * @param level 压缩级别 1-22 小于1时使用默认级别3
+	 */
+	public ZstdImpl(int level) {
+		this.level = level < 1 ? 3 : level;
+		Class<?> c = ClassUtil.forName("com.github.luben.zstd.Zstd");
+		if (c == null)
+			return;
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+			MethodType type = MethodType.methodType(byte[].class, byte[].class, int.class);
+			compress = lookup.findStatic(c, "compress", type);
+			decompress = lookup.findStatic(c, "decompress", type);
+			size = lookup.findStatic(c, "decompressedSize", MethodType.methodType(long.class, byte[].class));
+		} catch (Exception e) {
+			compress = null;
+		}
+	}
+
+	@Override
+	protected byte[] compress0(byte[] b) throws Throwable {
+		check();
+		return (byte[]) compress.invokeExact(b, level);
+	}
+
+	@Override
+	protected byte[] extract0(byte[] b) throws Throwable {
+		check();
+		// 原始长度由数据声明 分配前检查
+		long len = (long) size.invokeExact(b);
+		if (len == 0)
+			throw new IllegalArgumentException("zstd data size error");
+		return (byte[]) decompress.invokeExact(b, length(len));
+	}
+
+	/**
+	 * 检查是否有依赖
+	 */
+	private void check() {
+		if (compress == null)
+			throw new IllegalStateException("zstd-jni not found");
+	}
+}
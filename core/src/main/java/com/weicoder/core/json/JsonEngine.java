@@ -1,5 +1,8 @@
 package com.weicoder.core.json;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
@@ -84,6 +87,17 @@ public final class JsonEngine {
 		return obj == null ? StringConstants.EMPTY : JSON.toJSONString(obj);
 	}
 
+	/**
+	 * 把一个对象转换成JSON直接写入输出流 使用UTF-8编码 不生成中间字符串 缓冲区按线程复用
+	 * @param out 输出流
+	 * @param obj 要转换的对象
+	 * @return 写入的字节数
+	 * @throws IOException 写入异常
+	 */
+	public static int write(OutputStream out, Object obj) throws IOException {
+		return obj == null ? 0 : JSON.writeJSONString(out, StandardCharsets.UTF_8, obj);
+	}
+
 	/**
 	 * 把json变成 JSONArray
 	 * @param json json字符串
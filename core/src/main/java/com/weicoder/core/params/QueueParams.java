@@ -0,0 +1,68 @@
+package com.weicoder.core.params;
+
+import com.weicoder.common.params.Params;
+
+/**
+ * 批量队列参数
+ * @author WD
+ */
+public final class QueueParams {
+	// 前缀
+	private final static String PREFIX = "queue";
+
+	/**
+	 * 获得环形队列容量 会调整为2的幂 环形队列预先分配 默认0按批量大小的8倍
+	 * @param name 名称
+	 * @return 容量
+	 */
+	public static int getSize(String name) {
+		return Params.getInt(Params.getKey(PREFIX, name, "size"), 0);
+	}
+
+	/**
+	 * 获得批量大小 到达数量立即回调
+	 * @param name 名称
+	 * @return 批量大小
+	 */
+	public static int getBatch(String name) {
+		return Params.getInt(Params.getKey(PREFIX, name, "batch"), 500);
+	}
+
+	/**
+	 * 获得最大延迟 毫秒 超过时间未满一批也回调 必须大于0
+	 * @param name 名称
+	 * @return 最大延迟
+	 */
+	public static long getLatency(String name) {
+		return Params.getLong(Params.getKey(PREFIX, name, "latency"), 1000);
+	}
+
+	/**
+	 * 获得消费者等待策略 blocking lite sleeping yielding busy
+	 * @param name 名称
+	 * @return 等待策略
+	 */
+	public static String getWait(String name) {
+		return Params.getString(Params.getKey(PREFIX, name, "wait"), "blocking");
+	}
+
+	/**
+	 * 获得队列满时是否拒绝 false为阻塞等待
+	 * @param name 名称
+	 * @return 是否拒绝
+	 */
+	public static boolean getReject(String name) {
+		return Params.getBoolean(Params.getKey(PREFIX, name, "reject"), false);
+	}
+
+	/**
+	 * 获得关闭时等待剩余元素回调的最长时间 毫秒 超时后停止消费线程
+	 * @param name 名称
+	 * @return 等待时间
+	 */
+	public static long getClose(String name) {
+		return Params.getLong(Params.getKey(PREFIX, name, "close"), 3000);
+	}
+
+	private QueueParams() {}
+}
@@ -0,0 +1,12 @@
+package com.weicoder.core.queue;
+
+/**
+ * 批量队列环形缓冲区的槽
+ * @author WD
+ */
+final class BatchEvent<E> {
+	// 元素
+	E		value;
+	// 是否刷新标记 刷新标记不带元素
+	boolean	flush;
+}
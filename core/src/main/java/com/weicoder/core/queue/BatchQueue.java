@@ -0,0 +1,272 @@
+package com.weicoder.core.queue;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.lmax.disruptor.BatchEventProcessor;
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.ExceptionHandler;
+import com.lmax.disruptor.InsufficientCapacityException;
+import com.lmax.disruptor.LiteBlockingWaitStrategy;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
+import com.lmax.disruptor.util.Util;
+import com.weicoder.common.concurrent.ScheduledUtil;
+import com.weicoder.common.interfaces.CallbackList;
+import com.weicoder.common.lang.Lists;
+import com.weicoder.common.log.Logs;
+import com.weicoder.core.params.QueueParams;
+
+/**
+ * 批量回调队列 使用Disruptor有界环形缓冲区 单线程消费<br/>
+ * 满足批量大小 最大延迟 或调用flush 任一条件时回调一批元素 队列满时阻塞或拒绝
+ * @author WD
+ */
+public class BatchQueue<E> {
+	// 关闭时等待的间隔 纳秒
+	private final static long					PARK	= TimeUnit.MILLISECONDS.toNanos(1);
+	// 名称
+	private String								name;
+	// 环形缓冲区
+	private RingBuffer<BatchEvent<E>>			ring;
+	// 消费者
+	private BatchEventProcessor<BatchEvent<E>>	processor;
+	// 定时刷新
+	private ScheduledFuture<?>					timer;
+	// 回调
+	private CallbackList<E>						callback;
+	// 批量大小
+	private int									batch;
+	// 队列满时是否拒绝
+	private boolean								reject;
+	// 当前批次 只在消费线程访问
+	private List<E>								buffer;
+	// 当前批次数量 定时器判断是否需要刷新
+	private volatile int						buffered;
+
+	/**
+	 * 构造 参数读取queue.name.*配置
+	 * @param name 名称
+	 * @param callback 批量回调
+	 */
+	public BatchQueue(String name, CallbackList<E> callback) {
+		this(name, QueueParams.getSize(name), QueueParams.getBatch(name), QueueParams.getLatency(name), QueueParams.getWait(name), QueueParams.getReject(name), callback);
+	}
+
+	/**
+	 * 构造
+	 * @param name 名称
+	 * @param size 队列容量 会调整为2的幂 小于等于0时按批量大小的8倍
+	 * @param batch 批量大小
+	 * @param latency 最大延迟 毫秒 小于等于0时按1毫秒
+	 * @param wait 消费者等待策略 blocking lite sleeping yielding busy
+	 * @param reject 队列满时是否拒绝 false为阻塞等待
+	 * @param callback 批量回调
+	 */
+	public BatchQueue(String name, int size, int batch, long latency, String wait, boolean reject, CallbackList<E> callback) {
+		this.name = name;
+		this.batch = Math.max(batch, 1);
+		this.reject = reject;
+		this.callback = callback;
+		this.buffer = Lists.newList(this.batch);
+		// 延迟必须为正数 定时器不接受0
+		if (latency <= 0) {
+			Logs.warn("BatchQueue latency must be positive name={} latency={} use 1", name, latency);
+			latency = 1;
+		}
+		// 环形缓冲区 多生产者 未配置容量时按批量大小预留几批的空间
+		ring = RingBuffer.createMultiProducer(BatchEvent::new, Util.ceilingNextPowerOfTwo(Math.max(size > 0 ? size : this.batch * 8, 2)), strategy(wait));
+		// 消费者
+		processor = new BatchEventProcessor<>(ring, ring.newBarrier(), (EventHandler<BatchEvent<E>>) this::onEvent);
+		processor.setExceptionHandler(new ExceptionHandler<BatchEvent<E>>() {
+			@Override
+			public void handleEventException(Throwable ex, long sequence, BatchEvent<E> event) {
+				Logs.error(ex, "BatchQueue name={} sequence={}", name, sequence);
+			}
+
+			@Override
+			public void handleOnStartException(Throwable ex) {
+				Logs.error(ex, "BatchQueue start name={}", name);
+			}
+
+			@Override
+			public void handleOnShutdownException(Throwable ex) {
+				Logs.error(ex, "BatchQueue shutdown name={}", name);
+			}
+		});
+		ring.addGatingSequences(processor.getSequence());
+		// 启动消费线程
+		Thread thread = new Thread(processor, "batch-queue-" + name);
+		thread.setDaemon(true);
+		thread.start();
+		// 定时刷新 有未回调的元素才发布刷新标记 在共享定时线程池执行 队列满时不阻塞 消费者会按批量回调
+		timer = ScheduledUtil.rate(() -> {
+			if (buffered > 0)
+				publish(null, true, true);
+		}, latency, latency, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * 添加元素到队列
+	 * @param e 元素
+	 * @return 是否成功 队列满并且拒绝时返回false
+	 */
+	public boolean add(E e) {
+		if (e == null)
+			return false;
+		if (publish(e, false, reject))
+			return true;
+		Logs.warn("BatchQueue full name={} size={}", name, ring.getBufferSize());
+		return false;
+	}
+
+	/**
+	 * 添加列表到队列
+	 * @param c 列表
+	 * @return 是否全部成功
+	 */
+	public boolean addAll(Collection<? extends E> c) {
+		boolean b = true;
+		for (E e : c)
+			b &= add(e);
+		return b;
+	}
+
+	/**
+	 * 回调已添加的元素 异步执行 队列满时不阻塞 消费者会按批量回调
+	 * @return 是否已发布刷新标记
+	 */
+	public boolean flush() {
+		return publish(null, true, true);
+	}
+
+	/**
+	 * 未回调的元素数量
+	 * @return 数量
+	 */
+	public int size() {
+		return (int) (ring.getCursor() - processor.getSequence().get()) + buffered;
+	}
+
+	/**
+	 * 回调剩余元素并停止消费线程 最多等待queue.name.close毫秒
+	 */
+	public void close() {
+		close(QueueParams.getClose(name));
+	}
+
+	/**
+	 * 回调剩余元素并停止消费线程 超时后不再等待 未回调的元素丢弃
+	 * @param timeout 最长等待时间 毫秒
+	 */
+	public void close(long timeout) {
+		// 停止定时
+		timer.cancel(false);
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		// 发布刷新标记 队列满时等待空位
+		boolean flush;
+		while (!(flush = flush()) && System.nanoTime() < deadline)
+			LockSupport.parkNanos(PARK);
+		// 等待消费完
+		while (processor.getSequence().get() < ring.getCursor() && System.nanoTime() < deadline)
+			LockSupport.parkNanos(PARK);
+		if (!flush || processor.getSequence().get() < ring.getCursor())
+			Logs.warn("BatchQueue close timeout name={} timeout={} size={}", name, timeout, size());
+		processor.halt();
+	}
+
+	/**
+	 * 消费元素 只在消费线程调用
+	 * @param event 槽
+	 * @param sequence 序号
+	 * @param endOfBatch 是否本次可读的最后一个
+	 */
+	private void onEvent(BatchEvent<E> event, long sequence, boolean endOfBatch) {
+		if (event.flush) {
+			// 刷新标记
+			event.flush = false;
+			callback();
+		} else {
+			// 添加到当前批次
+			buffer.add(event.value);
+			event.value = null;
+			// 到达批量大小
+			if (buffer.size() >= batch)
+				callback();
+		}
+		buffered = buffer.size();
+	}
+
+	/**
+	 * 发布元素或刷新标记
+	 * @param e 元素
+	 * @param flush 是否刷新标记
+	 * @param reject 队列满时是否拒绝
+	 * @return 是否成功
+	 */
+	private boolean publish(E e, boolean flush, boolean reject) {
+		long sequence;
+		if (reject)
+			try {
+				sequence = ring.tryNext();
+			} catch (InsufficientCapacityException ex) {
+				return false;
+			}
+		else
+			sequence = ring.next();
+		try {
+			BatchEvent<E> event = ring.get(sequence);
+			event.value = e;
+			event.flush = flush;
+		} finally {
+			ring.publish(sequence);
+		}
+		return true;
+	}
+
+	/**
+	 * 回调当前批次
+	 */
+	private void callback() {
+		// 批次为空
+		if (buffer.isEmpty())
+			return;
+		// 回调后使用新批次 回调可以持有列表
+		List<E> results = buffer;
+		buffer = Lists.newList(batch);
+		long time = System.currentTimeMillis();
+		try {
+			callback.callback(results);
+		} catch (Throwable t) {
+			Logs.error(t, "BatchQueue callback name={} size={}", name, results.size());
+		}
+		Logs.debug("BatchQueue callback name={} size={} time={}", name, results.size(), System.currentTimeMillis() - time);
+	}
+
+	/**
+	 * 获得等待策略
+	 * @param wait 等待策略名
+	 * @return 等待策略
+	 */
+	private static WaitStrategy strategy(String wait) {
+		switch (wait) {
+			case "lite":
+				return new LiteBlockingWaitStrategy();
+			case "sleeping":
+				return new SleepingWaitStrategy();
+			case "yielding":
+				return new YieldingWaitStrategy();
+			case "busy":
+				return new BusySpinWaitStrategy();
+			default:
+				return new BlockingWaitStrategy();
+		}
+	}
+}
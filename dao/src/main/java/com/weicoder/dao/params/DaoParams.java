@@ -25,6 +25,10 @@ public final class DaoParams {
 	public final static int		QUEUE_TIME	= CONFIG.getInt("queue.time", Params.getInt(PREFIX + ".queue.time", 2));
 	/** 队列更新步长 默认500 */
 	public final static int		QUEUE_SETP	= CONFIG.getInt("queue.setp", Params.getInt(PREFIX + ".queue.setp", 200));
+	/** 更新队列容量 满时阻塞添加 默认0按步长的8倍 */
+	public final static int		QUEUE_SIZE	= CONFIG.getInt("queue.size", Params.getInt(PREFIX + ".queue.size", 0));
+	/** 更新队列消费等待策略 blocking lite sleeping yielding busy */
+	public final static String	QUEUE_WAIT	= CONFIG.getString("queue.wait", Params.getString(PREFIX + ".queue.wait", "blocking"));
 	/** dao分步更新间隔时间 */
 	public final static long	SETP_SLEEP	= CONFIG.getLong("setp.sleep", Params.getInt(PREFIX + ".setp.sleep", 100));
 
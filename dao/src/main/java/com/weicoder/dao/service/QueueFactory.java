@@ -1,15 +1,17 @@
 package com.weicoder.dao.service;
 
+import java.util.LinkedHashSet;
+
 import com.weicoder.common.factory.FactoryKey;
-import com.weicoder.common.lang.Queues;
-import com.weicoder.common.util.AsynQueueList;
+import com.weicoder.common.lang.Lists;
+import com.weicoder.core.queue.BatchQueue;
 import com.weicoder.dao.params.DaoParams;
 
 /**
  * SuperService 使用更新队列
  * @author WD
  */
-final class QueueFactory extends FactoryKey<Class<?>, AsynQueueList<Object>> {
+final class QueueFactory extends FactoryKey<Class<?>, BatchQueue<Object>> {
 	// 工厂
 	private final static QueueFactory FACTORY = new QueueFactory();
 
@@ -18,13 +20,15 @@ final class QueueFactory extends FactoryKey<Class<?>, AsynQueueList<Object>> {
 	 * @param key 类名
 	 * @return 队列
 	 */
-	public static AsynQueueList<Object> get(Class<?> key) {
+	public static BatchQueue<Object> get(Class<?> key) {
 		return FACTORY.getInstance(key);
 	}
 
 	@Override
-	public AsynQueueList<Object> newInstance(Class<?> key) {
-		return Queues.newAsynQueueList(Queues.newOnlyQueue(), results -> SuperService.DAO.insertOrUpdate(results, DaoParams.QUEUE_SETP), DaoParams.QUEUE_TIME);
+	public BatchQueue<Object> newInstance(Class<?> key) {
+		// 达到步长或队列时间回调 同一批次相同对象只更新一次 保持添加顺序
+		return new BatchQueue<>(key.getSimpleName(), DaoParams.QUEUE_SIZE, DaoParams.QUEUE_SETP, DaoParams.QUEUE_TIME * 1000L, DaoParams.QUEUE_WAIT, false,
+				results -> SuperService.DAO.insertOrUpdate(Lists.newList(new LinkedHashSet<>(results)), DaoParams.QUEUE_SETP));
 	}
 
 	private QueueFactory() {}
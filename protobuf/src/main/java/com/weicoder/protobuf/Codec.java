@@ -0,0 +1,83 @@
+package com.weicoder.protobuf;
+
+import java.lang.reflect.Modifier;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+/**
+ * Protobuf 单个值的编解码 不包括字段标签
+ * @author WD
+ */
+interface Codec {
+	/**
+	 * 获得类型对应的编解码器
+	 * @param c 类型
+	 * @return 编解码器 不支持的类型返回null
+	 */
+	static Codec of(Class<?> c) {
+		// 基础类型
+		Codec codec = ScalarCodec.of(c);
+		if (codec != null)
+			return codec;
+		// 枚举
+		if (c.isEnum())
+			return new EnumCodec(c);
+		// 嵌套消息 需要可实例化的非JDK类
+		if (!c.isInterface() && !c.isArray() && !Modifier.isAbstract(c.getModifiers()) && !c.getName().startsWith("java."))
+			return new MessageCodec(c);
+		return null;
+	}
+
+	/**
+	 * 编码类型
+	 * @return WireFormat类型
+	 */
+	int wireType();
+
+	/**
+	 * 是否可以打包编码 变长和定长数值可以打包
+	 * @return 是否
+	 */
+	default boolean packable() {
+		return wireType() != WireFormat.WIRETYPE_LENGTH_DELIMITED;
+	}
+
+	/**
+	 * 是否默认值 默认值不编码
+	 * @param v 值
+	 * @return 是否
+	 */
+	boolean isDefault(Object v);
+
+	/**
+	 * 默认值 用于map中没有编码的键值
+	 * @return 默认值
+	 */
+	Object empty();
+
+	/**
+	 * 编码后的长度 长度分隔类型包括长度本身
+	 * @param v 值
+	 * @return 长度
+	 * @throws Throwable 异常
+	 */
+	int size(Object v) throws Throwable;
+
+	/**
+	 * 写入值
+	 * @param out 输出流
+	 * @param v 值
+	 * @throws Throwable 异常
+	 */
+	void write(CodedOutputStream out, Object v) throws Throwable;
+
+	/**
+	 * 读取值
+	 * @param in 输入流
+	 * @return 值
+	 * @throws Throwable 异常
+	 */
+	Object read(CodedInputStream in) throws Throwable;
+}
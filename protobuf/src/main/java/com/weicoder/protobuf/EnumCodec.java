@@ -0,0 +1,56 @@
+package com.weicoder.protobuf;
+
+import java.io.IOException;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+/**
+ * Protobuf 枚举编解码 按枚举序号编码 null不编码
+ * @author WD
+ */
+final class EnumCodec implements Codec {
+	// 枚举值
+	private Object[] values;
+
+	/**
+	 * 构造
+	 * @param c 枚举类
+	 */
+	EnumCodec(Class<?> c) {
+		values = c.getEnumConstants();
+	}
+
+	@Override
+	public int wireType() {
+		return WireFormat.WIRETYPE_VARINT;
+	}
+
+	@Override
+	public boolean isDefault(Object v) {
+		return false;
+	}
+
+	@Override
+	public Object empty() {
+		return values.length == 0 ? null : values[0];
+	}
+
+	@Override
+	public int size(Object v) {
+		return CodedOutputStream.computeEnumSizeNoTag(((Enum<?>) v).ordinal());
+	}
+
+	@Override
+	public void write(CodedOutputStream out, Object v) throws IOException {
+		out.writeEnumNoTag(((Enum<?>) v).ordinal());
+	}
+
+	@Override
+	public Object read(CodedInputStream in) throws IOException {
+		int i = in.readEnum();
+		// 未知的序号为null
+		return i >= 0 && i < values.length ? values[i] : null;
+	}
+}
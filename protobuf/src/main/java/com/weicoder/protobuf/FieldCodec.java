@@ -0,0 +1,123 @@
+package com.weicoder.protobuf;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Map;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+
+/**
+ * Protobuf 字段编解码 字段的读写编译成MethodHandle
+ * @author WD
+ */
+abstract class FieldCodec {
+	// 查找MethodHandle
+	private final static MethodHandles.Lookup	LOOKUP	= MethodHandles.lookup();
+	// 字段号
+	protected final int							number;
+	// 标签长度
+	protected final int							tagSize;
+	// 读取字段值 (Object)字段类型
+	protected final MethodHandle				get;
+	// 设置字段值 (Object,字段类型)void
+	protected final MethodHandle				set;
+
+	/**
+	 * 获得字段编解码器
+	 * @param number 字段号
+	 * @param field 字段
+	 * @return 编解码器 不支持的类型返回null
+	 * @throws IllegalAccessException 无法访问字段
+	 */
+	static FieldCodec of(int number, Field field) throws IllegalAccessException {
+		Class<?> type = field.getType();
+		field.setAccessible(true);
+		MethodHandle get = LOOKUP.unreflectGetter(field);
+		MethodHandle set = LOOKUP.unreflectSetter(field);
+		// 数值基础类型 不装箱
+		if (type.equals(int.class) || type.equals(long.class) || type.equals(boolean.class) || type.equals(float.class) || type.equals(double.class))
+			return new PrimitiveField(number, type, get, set);
+		// 数组
+		if (type.isArray() && !type.equals(byte[].class)) {
+			Codec c = Codec.of(type.getComponentType());
+			return c == null ? null : new RepeatedField(number, type, c, get, set);
+		}
+		// 集合
+		if (Collection.class.isAssignableFrom(type)) {
+			Codec c = Codec.of(argument(field, 0));
+			return c == null ? null : new RepeatedField(number, type, c, get, set);
+		}
+		// Map
+		if (Map.class.isAssignableFrom(type)) {
+			Codec k = Codec.of(argument(field, 0));
+			Codec v = Codec.of(argument(field, 1));
+			return k == null || v == null ? null : new MapField(number, type, k, v, get, set);
+		}
+		// 单个值
+		Codec c = Codec.of(type);
+		return c == null ? null : new ValueField(number, c, get, set);
+	}
+
+	/**
+	 * 构造
+	 * @param number 字段号
+	 * @param type 字段类型
+	 * @param get 读取字段值
+	 * @param set 设置字段值
+	 */
+	protected FieldCodec(int number, Class<?> type, MethodHandle get, MethodHandle set) {
+		this.number = number;
+		this.tagSize = CodedOutputStream.computeTagSize(number);
+		this.get = get.asType(MethodType.methodType(type, Object.class));
+		this.set = set.asType(MethodType.methodType(void.class, Object.class, type));
+	}
+
+	/**
+	 * 字段编码后长度 包括标签
+	 * @param bean 对象
+	 * @return 长度
+	 * @throws Throwable 异常
+	 */
+	abstract int size(Object bean) throws Throwable;
+
+	/**
+	 * 写入字段
+	 * @param out 输出流
+	 * @param bean 对象
+	 * @throws Throwable 异常
+	 */
+	abstract void write(CodedOutputStream out, Object bean) throws Throwable;
+
+	/**
+	 * 读取字段 编码类型不符时跳过
+	 * @param in 输入流
+	 * @param tag 已读取的标签
+	 * @param bean 对象
+	 * @throws Throwable 异常
+	 */
+	abstract void read(CodedInputStream in, int tag, Object bean) throws Throwable;
+
+	/**
+	 * 获得字段泛型参数
+	 * @param field 字段
+	 * @param i 第几个参数
+	 * @return 参数类型 无法确定时为Object
+	 */
+	private static Class<?> argument(Field field, int i) {
+		Type t = field.getGenericType();
+		if (t instanceof ParameterizedType) {
+			Type a = ((ParameterizedType) t).getActualTypeArguments()[i];
+			if (a instanceof Class)
+				return (Class<?>) a;
+			if (a instanceof ParameterizedType)
+				return (Class<?>) ((ParameterizedType) a).getRawType();
+		}
+		return Object.class;
+	}
+}
@@ -0,0 +1,128 @@
+package com.weicoder.protobuf;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import com.weicoder.common.lang.Maps;
+import com.weicoder.common.util.BeanUtil;
+
+/**
+ * Protobuf Map字段 每个键值对编码为键字段1值字段2的嵌套消息
+ * @author WD
+ */
+final class MapField extends FieldCodec {
+	// 字段类型
+	private Class<?>	type;
+	// 键编解码
+	private Codec		key;
+	// 值编解码
+	private Codec		value;
+
+	/**
+	 * 构造
+	 * @param number 字段号
+	 * @param type 字段类型
+	 * @param key 键编解码
+	 * @param value 值编解码
+	 * @param get 读取字段值
+	 * @param set 设置字段值
+	 */
+	MapField(int number, Class<?> type, Codec key, Codec value, MethodHandle get, MethodHandle set) {
+		super(number, Object.class, get, set);
+		this.type = type;
+		this.key = key;
+		this.value = value;
+	}
+
+	@Override
+	int size(Object bean) throws Throwable {
+		Map<?, ?> map = (Map<?, ?>) (Object) get.invokeExact(bean);
+		if (map == null)
+			return 0;
+		int size = 0;
+		for (Map.Entry<?, ?> e : map.entrySet()) {
+			int n = entry(e.getKey(), e.getValue());
+			size += tagSize + CodedOutputStream.computeUInt32SizeNoTag(n) + n;
+		}
+		return size;
+	}
+
+	@Override
+	void write(CodedOutputStream out, Object bean) throws Throwable {
+		Map<?, ?> map = (Map<?, ?>) (Object) get.invokeExact(bean);
+		if (map == null)
+			return;
+		for (Map.Entry<?, ?> e : map.entrySet()) {
+			Object k = e.getKey();
+			Object v = e.getValue();
+			out.writeTag(number, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+			out.writeUInt32NoTag(entry(k, v));
+			if (k != null) {
+				out.writeTag(1, key.wireType());
+				key.write(out, k);
+			}
+			if (v != null) {
+				out.writeTag(2, value.wireType());
+				value.write(out, v);
+			}
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	void read(CodedInputStream in, int tag, Object bean) throws Throwable {
+		// 编码类型不符 跳过
+		if (WireFormat.getTagWireType(tag) != WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+			in.skipField(tag);
+			return;
+		}
+		// 读取键值对 没有编码的键值为默认值
+		Object k = null;
+		Object v = null;
+		int limit = in.pushLimit(in.readRawVarint32());
+		for (int t = in.readTag(); t != 0; t = in.readTag()) {
+			int n = WireFormat.getTagFieldNumber(t);
+			int w = WireFormat.getTagWireType(t);
+			if (n == 1 && w == key.wireType())
+				k = key.read(in);
+			else if (n == 2 && w == value.wireType())
+				v = value.read(in);
+			else
+				in.skipField(t);
+		}
+		in.popLimit(limit);
+		// 放入字段
+		Object map = (Object) get.invokeExact(bean);
+		if (map == null)
+			set.invokeExact(bean, map = map());
+		((Map<Object, Object>) map).put(k == null ? key.empty() : k, v == null ? value.empty() : v);
+	}
+
+	/**
+	 * 创建Map
+	 * @return Map
+	 */
+	private Object map() {
+		return type.isInterface() || Modifier.isAbstract(type.getModifiers()) ? Maps.newMap() : BeanUtil.newInstance(type);
+	}
+
+	/**
+	 * 键值对编码长度
+	 * @param k 键
+	 * @param v 值
+	 * @return 长度
+	 * @throws Throwable 异常
+	 */
+	private int entry(Object k, Object v) throws Throwable {
+		int size = 0;
+		if (k != null)
+			size += 1 + key.size(k);
+		if (v != null)
+			size += 1 + value.size(v);
+		return size;
+	}
+}
@@ -0,0 +1,110 @@
+package com.weicoder.protobuf;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+/**
+ * Protobuf 嵌套消息编解码 长度分隔 结构在第一次使用时获取 支持递归类型<br/>
+ * 一次编码内嵌套消息的长度按对象缓存 写入时不再逐层重新计算
+ * @author WD
+ */
+final class MessageCodec implements Codec {
+	// 当前线程编码中已计算的嵌套消息长度 不在编码中时为null
+	private final static ThreadLocal<Map<Object, Integer>>	SIZES	= new ThreadLocal<>();
+	// 消息类
+	private Class<?>										type;
+	// 消息结构
+	private volatile Schema									schema;
+
+	/**
+	 * 开始一次编码 缓存嵌套消息长度 已在编码中时不重复开始
+	 * @return 是否本次开始 是时编码结束后需要调用end
+	 */
+	static boolean begin() {
+		if (SIZES.get() != null)
+			return false;
+		SIZES.set(new IdentityHashMap<>());
+		return true;
+	}
+
+	/**
+	 * 结束编码 清除长度缓存
+	 */
+	static void end() {
+		SIZES.remove();
+	}
+
+	/**
+	 * 构造
+	 * @param type 消息类
+	 */
+	MessageCodec(Class<?> type) {
+		this.type = type;
+	}
+
+	@Override
+	public int wireType() {
+		return WireFormat.WIRETYPE_LENGTH_DELIMITED;
+	}
+
+	@Override
+	public boolean isDefault(Object v) {
+		return false;
+	}
+
+	@Override
+	public Object empty() {
+		return null;
+	}
+
+	@Override
+	public int size(Object v) throws Throwable {
+		int n = length(v);
+		return CodedOutputStream.computeUInt32SizeNoTag(n) + n;
+	}
+
+	@Override
+	public void write(CodedOutputStream out, Object v) throws Throwable {
+		out.writeUInt32NoTag(length(v));
+		schema().write(out, v);
+	}
+
+	@Override
+	public Object read(CodedInputStream in) throws Throwable {
+		int limit = in.pushLimit(in.readRawVarint32());
+		Object v = schema().read(in);
+		in.popLimit(limit);
+		return v;
+	}
+
+	/**
+	 * 消息长度 不包括长度本身 编码中时使用缓存
+	 * @param v 值
+	 * @return 长度
+	 * @throws Throwable 异常
+	 */
+	private int length(Object v) throws Throwable {
+		Map<Object, Integer> sizes = SIZES.get();
+		if (sizes == null)
+			return schema().size(v);
+		Integer n = sizes.get(v);
+		if (n == null)
+			sizes.put(v, n = schema().size(v));
+		return n;
+	}
+
+	/**
+	 * 获得消息结构
+	 * @return 消息结构
+	 */
+	private Schema schema() {
+		Schema s = schema;
+		if (s == null)
+			schema = s = Schema.get(type);
+		return s;
+	}
+}
@@ -0,0 +1,103 @@
+package com.weicoder.protobuf;
+
+import java.lang.invoke.MethodHandle;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+/**
+ * Protobuf 数值基础类型字段 int long boolean float double 读写不装箱 0值不编码
+ * @author WD
+ */
+final class PrimitiveField extends FieldCodec {
+	// 类型 0 int 1 long 2 boolean 3 float 4 double
+	private int	kind;
+	// 编码类型
+	private int	wire;
+
+	/**
+	 * 构造
+	 * @param number 字段号
+	 * @param type 字段类型
+	 * @param get 读取字段值
+	 * @param set 设置字段值
+	 */
+	PrimitiveField(int number, Class<?> type, MethodHandle get, MethodHandle set) {
+		super(number, type, get, set);
+		kind = type.equals(int.class) ? 0 : type.equals(long.class) ? 1 : type.equals(boolean.class) ? 2 : type.equals(float.class) ? 3 : 4;
+		wire = kind == 3 ? WireFormat.WIRETYPE_FIXED32 : kind == 4 ? WireFormat.WIRETYPE_FIXED64 : WireFormat.WIRETYPE_VARINT;
+	}
+
+	@Override
+	int size(Object bean) throws Throwable {
+		switch (kind) {
+			case 0:
+				int i = (int) get.invokeExact(bean);
+				return i == 0 ? 0 : tagSize + CodedOutputStream.computeInt32SizeNoTag(i);
+			case 1:
+				long l = (long) get.invokeExact(bean);
+				return l == 0L ? 0 : tagSize + CodedOutputStream.computeInt64SizeNoTag(l);
+			case 2:
+				return (boolean) get.invokeExact(bean) ? tagSize + 1 : 0;
+			case 3:
+				return (float) get.invokeExact(bean) == 0F ? 0 : tagSize + 4;
+			default:
+				return (double) get.invokeExact(bean) == 0D ? 0 : tagSize + 8;
+		}
+	}
+
+	@Override
+	void write(CodedOutputStream out, Object bean) throws Throwable {
+		switch (kind) {
+			case 0:
+				int i = (int) get.invokeExact(bean);
+				if (i != 0)
+					out.writeInt32(number, i);
+				break;
+			case 1:
+				long l = (long) get.invokeExact(bean);
+				if (l != 0L)
+					out.writeInt64(number, l);
+				break;
+			case 2:
+				if ((boolean) get.invokeExact(bean))
+					out.writeBool(number, true);
+				break;
+			case 3:
+				float f = (float) get.invokeExact(bean);
+				if (f != 0F)
+					out.writeFloat(number, f);
+				break;
+			default:
+				double d = (double) get.invokeExact(bean);
+				if (d != 0D)
+					out.writeDouble(number, d);
+		}
+	}
+
+	@Override
+	void read(CodedInputStream in, int tag, Object bean) throws Throwable {
+		// 编码类型不符 跳过
+		if (WireFormat.getTagWireType(tag) != wire) {
+			in.skipField(tag);
+			return;
+		}
+		switch (kind) {
+			case 0:
+				set.invokeExact(bean, in.readInt32());
+				break;
+			case 1:
+				set.invokeExact(bean, in.readInt64());
+				break;
+			case 2:
+				set.invokeExact(bean, in.readBool());
+				break;
+			case 3:
+				set.invokeExact(bean, in.readFloat());
+				break;
+			default:
+				set.invokeExact(bean, in.readDouble());
+		}
+	}
+}
@@ -1,21 +1,20 @@
 package com.weicoder.protobuf;
 
-import java.io.IOException;
-import java.lang.reflect.Field;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.List;
 
-import com.google.protobuf.ByteString;
 import com.google.protobuf.CodedInputStream;
 import com.google.protobuf.CodedOutputStream;
-import com.google.protobuf.WireFormat;
 import com.weicoder.common.constants.ArrayConstants;
-import com.weicoder.common.lang.Conversion;
+import com.weicoder.common.lang.Lists;
 import com.weicoder.common.log.Logs;
+import com.weicoder.common.params.CommonParams;
 import com.weicoder.common.util.BeanUtil;
-import com.weicoder.common.util.EmptyUtil;
 
 /**
- * Google Protobuf 处理器 使用的Protobuf 3
+ * Google Protobuf 处理器 使用的Protobuf 3 每个类的字段编解码只解析一次
  * @author WD
  */
 public final class ProtobufEngine {
@@ -25,28 +24,85 @@ public final class ProtobufEngine {
 	 * @return 字节数组
 	 */
 	public static byte[] toBytes(Object obj) {
+		// 缓存嵌套消息长度 计算长度与写入共用
+		boolean begin = MessageCodec.begin();
 		try {
-			// 获得对象类
-			Class<?> c = obj.getClass();
-			// 获得所有类
-			List<Field> fields = BeanUtil.getFields(c);
+			// 获得对象结构
+			Schema schema = Schema.get(obj.getClass());
 			// 声明返回序列化结果 获得序列化字节大小
-			byte[] result = new byte[getSerializedSize(obj, c, fields)];
+			byte[] result = new byte[schema.size(obj)];
 			// 生成编码流Protobuf内部提供
 			CodedOutputStream output = CodedOutputStream.newInstance(result);
 			// 把对象属性序列化写入字节数组
-			writeTo(output, obj, fields);
+			schema.write(output, obj);
 			// 校验结果
 			output.checkNoSpaceLeft();
 			// 返回结果
 			return result;
-		} catch (Exception e) {
+		} catch (Throwable e) {
 			// 错误返回空字节数组
 			Logs.error(e);
 			return ArrayConstants.BYTES_EMPTY;
+		} finally {
+			if (begin)
+				MessageCodec.end();
 		}
 	}
 
+	/**
+	 * 获得对象序列化后的字节数 用于预先分配缓存
+	 * @param obj 实体对象
+	 * @return 字节数 错误返回-1
+	 */
+	public static int size(Object obj) {
+		try {
+			return Schema.get(obj.getClass()).size(obj);
+		} catch (Throwable e) {
+			Logs.error(e);
+			return -1;
+		}
+	}
+
+	/**
+	 * 序列化对象直接写入ByteBuffer(堆内或堆外) 从position开始写入 写入后移动position
+	 * @param obj 实体对象
+	 * @param buf 字节缓存 剩余空间需要不小于size(obj)
+	 * @return 写入的字节数 错误返回-1
+	 */
+	public static int write(Object obj, ByteBuffer buf) {
+		return write(obj, buf, false);
+	}
+
+	/**
+	 * 序列化对象并在前面写入varint长度 用于在一个ByteBuffer中连续写入多个消息
+	 * @param obj 实体对象
+	 * @param buf 字节缓存
+	 * @return 写入的字节数 包括长度 错误返回-1
+	 */
+	public static int writeDelimited(Object obj, ByteBuffer buf) {
+		return write(obj, buf, true);
+	}
+
+	/**
+	 * 序列化对象直接写入输出流 不生成中间数组 不关闭流
+	 * @param obj 实体对象
+	 * @param out 输出流
+	 * @return 写入的字节数 错误返回-1
+	 */
+	public static int write(Object obj, OutputStream out) {
+		return write(obj, out, false);
+	}
+
+	/**
+	 * 序列化对象并在前面写入varint长度到输出流 不关闭流
+	 * @param obj 实体对象
+	 * @param out 输出流
+	 * @return 写入的字节数 包括长度 错误返回-1
+	 */
+	public static int writeDelimited(Object obj, OutputStream out) {
+		return write(obj, out, true);
+	}
+
 	/**
 	 * 反序列化获得对象
 	 * @param b 字节数组
@@ -55,191 +111,190 @@ public final class ProtobufEngine {
 	 * @return 获得的对象
 	 */
 	public static <E> E toBean(byte[] b, Class<E> c) {
-		// 实例化对象
-		E bean = BeanUtil.newInstance(c);
+		return toBean(CodedInputStream.newInstance(b, 0, b.length), c);
+	}
+
+	/**
+	 * 反序列化获得对象 直接读取ByteBuffer(堆内或堆外)不复制数组
+	 * @param buf 字节缓存 读取position到limit之间的数据 不移动position
+	 * @param c 反序列化的对象
+	 * @param <E> 范型
+	 * @return 获得的对象
+	 */
+	public static <E> E toBean(ByteBuffer buf, Class<E> c) {
+		return toBean(CodedInputStream.newInstance(buf), c);
+	}
+
+	/**
+	 * 反序列化获得对象 读取整个输入流 不关闭流
+	 * @param in 输入流
+	 * @param c 反序列化的对象
+	 * @param <E> 范型
+	 * @return 获得的对象
+	 */
+	public static <E> E toBean(InputStream in, Class<E> c) {
+		return toBean(CodedInputStream.newInstance(in), c);
+	}
+
+	/**
+	 * 从ByteBuffer中读取一个varint长度开头的消息 读取后移动position 与writeDelimited对应
+	 * @param buf 字节缓存
+	 * @param c 反序列化的对象
+	 * @param <E> 范型
+	 * @return 获得的对象 没有剩余数据 长度不完整或数据损坏返回null 不移动position
+	 */
+	public static <E> E readDelimited(ByteBuffer buf, Class<E> c) {
+		if (!buf.hasRemaining())
+			return null;
+		CodedInputStream input = CodedInputStream.newInstance(buf);
 		try {
-			// 声明编码输入流 用于读取字段数据
-			CodedInputStream input = CodedInputStream.newInstance(b, 0, b.length);
-			// 获得所有字段
-			List<Field> fields = BeanUtil.getFields(c);
-			// 读取标签
-			int tag = input.readTag();
-			// 根据标签获得第几个属性
-			int num = WireFormat.getTagFieldNumber(tag);
-			// 循环所有属性 字段标示从1开始 所以i从1 开始
-			for (int i = 1; i < fields.size(); i++) {
-				// 读取标签为0时跳出循环
-				if (tag == 0)
-					break;
-				// 如果字段位置大于当前，跳过本次循环
-				if (num > i)
-					continue;
-				// 获得本字段
-				Field field = fields.get(i - 1);
-				// 获得字段类型
-				Class<?> type = field.getType();
-				// 判断字段类型 根据字段类型赋值
-				if (type.equals(String.class))
-					// 字符串
-					BeanUtil.setFieldValue(bean, field, input.readStringRequireUtf8());
-				else if (type.equals(int.class) || type.equals(Integer.class))
-					// 整型
-					BeanUtil.setFieldValue(bean, field, input.readInt32());
-				else if (type.equals(long.class) || type.equals(Long.class))
-					// 长整型
-					BeanUtil.setFieldValue(bean, field, input.readInt64());
-				else if (type.equals(boolean.class) || type.equals(Boolean.class))
-					// 布尔
-					BeanUtil.setFieldValue(bean, field, input.readBool());
-				else if (type.equals(float.class) || type.equals(Float.class))
-					// float型
-					BeanUtil.setFieldValue(bean, field, input.readFloat());
-				else if (type.equals(double.class) || type.equals(Double.class))
-					// Double型
-					BeanUtil.setFieldValue(bean, field, input.readDouble());
-				else if (type.equals(ByteString.class))
-					// 字节字符串
-					BeanUtil.setFieldValue(bean, field, input.readBytes());
-				else if (type.equals(byte[].class))
-					// 字节流
-					BeanUtil.setFieldValue(bean, field, input.readByteArray());
-				// 重新读取标签和字段位置
-				tag = input.readTag();
-				num = WireFormat.getTagFieldNumber(tag);
+			// 读取长度 检查剩余数据是否完整
+			int size = input.readRawVarint32();
+			int head = input.getTotalBytesRead();
+			if (size < 0 || size > buf.remaining() - head) {
+				Logs.warn("protobuf delimited truncated size={} remaining={}", size, buf.remaining() - head);
+				return null;
 			}
-			// 校验标签是否为0
-			input.checkLastTagWas(0);
-		} catch (Exception e) {
+			input.pushLimit(size);
+			E bean = read(input, c);
+			// 移动到本消息结束的位置
+			buf.position(buf.position() + head + size);
+			return bean;
+		} catch (Throwable e) {
 			Logs.error(e);
+			return null;
 		}
-		// 返回结果
-		return bean;
-	}
-
-	/**
-	 * 获得序列化字节数量
-	 * @param obj 要序列化的对象
-	 * @param c 序列化对象的类
-	 * @param fields 序列化对象的所有字段
-	 * @return 序列化后的字节数量
-	 */
-	private static int getSerializedSize(Object obj, Class<?> c, List<Field> fields) {
-		// 要返回的数量
-		int size = 0;
-		// 循环所有字段
-		for (int i = 0; i < fields.size(); i++) {
-			// 获得字段
-			Field field = fields.get(i);
-			// 获得当前字段的值 如果值为null 跳过循环
-			Object val = BeanUtil.getFieldValue(obj, field);
-			if (val == null)
-				continue;
-			// 获得字段类型
-			Class<?> type = field.getType();
-			// 判断字段类型并累加大小
-			if (type.equals(String.class)) {
-				// 字符串
-				String s = Conversion.toString(val);
-				if (EmptyUtil.isNotEmpty(s))
-					size += CodedOutputStream.computeStringSize(i, s);
-			} else if (type.equals(int.class) || type.equals(Integer.class)) {
-				// 整型
-				int n = Conversion.toInt(val);
-				if (n != 0)
-					size += CodedOutputStream.computeInt32Size(i, n);
-			} else if (type.equals(long.class) || type.equals(Long.class)) {
-				// 长整型
-				long n = Conversion.toLong(val);
-				if (n != 0L)
-					size += CodedOutputStream.computeInt64Size(i, n);
-			} else if (type.equals(boolean.class) || type.equals(Boolean.class)) {
-				// 布尔
-				boolean n = Conversion.toBoolean(val);
-				if (n != false)
-					size += CodedOutputStream.computeBoolSize(i, n);
-			} else if (type.equals(float.class) || type.equals(Float.class)) {
-				// float型
-				float n = Conversion.toFloat(val);
-				if (n != 0F)
-					size += CodedOutputStream.computeFloatSize(i, n);
-			} else if (type.equals(double.class) || type.equals(Double.class)) {
-				// Double型
-				double n = Conversion.toDouble(val);
-				if (n != 0D)
-					size += CodedOutputStream.computeDoubleSize(i, n);
-			} else if (type.equals(ByteString.class)) {
-				// 字节字符串
-				ByteString n = (ByteString) val;
-				if (!n.isEmpty())
-					size += CodedOutputStream.computeBytesSize(i, n);
-			} else if (type.equals(byte[].class)) {
-				// 字节流
-				byte[] n = (byte[]) val;
-				if (EmptyUtil.isNotEmpty(n))
-					size += CodedOutputStream.computeByteArraySize(i, n);
+	}
+
+	/**
+	 * 读取ByteBuffer中所有varint长度开头的消息 读取后移动position 遇到损坏的消息停止 position停在该消息开头
+	 * @param buf 字节缓存
+	 * @param c 反序列化的对象
+	 * @param <E> 范型
+	 * @return 对象列表
+	 */
+	public static <E> List<E> toList(ByteBuffer buf, Class<E> c) {
+		List<E> list = Lists.newList();
+		for (E e; (e = readDelimited(buf, c)) != null;)
+			list.add(e);
+		return list;
+	}
+
+	/**
+	 * 从输入流中读取一个varint长度开头的消息 只读取这个消息的数据 不关闭流
+	 * @param in 输入流
+	 * @param c 反序列化的对象
+	 * @param <E> 范型
+	 * @return 获得的对象 流已结束或数据损坏返回null
+	 */
+	public static <E> E readDelimited(InputStream in, Class<E> c) {
+		try {
+			int first = in.read();
+			if (first == -1)
+				return null;
+			// 只读取本消息的数据 不能多读后面的消息
+			int size = CodedInputStream.readRawVarint32(first, in);
+			byte[] b = in.readNBytes(size);
+			if (b.length < size) {
+				Logs.warn("protobuf delimited truncated size={} read={}", size, b.length);
+				return null;
 			}
+			return read(CodedInputStream.newInstance(b), c);
+		} catch (Throwable e) {
+			Logs.error(e);
+			return null;
 		}
-		// 返回数量
-		return size;
-	}
-
-	/**
-	 * 写入数据
-	 * @param output 编码输出流
-	 * @param obj 序列化对象
-	 * @param fields 字段列表
-	 * @throws IOException IO异常
-	 */
-	private static void writeTo(CodedOutputStream output, Object obj, List<Field> fields) throws IOException {
-		for (int i = 1; i <= fields.size(); i++) {
-			Field field = fields.get(i - 1);
-			Object val = BeanUtil.getFieldValue(obj, field);
-			if (val == null)
-				continue;
-			Class<?> type = field.getType();
-			if (type.equals(String.class)) {
-				// 字符串
-				String s = Conversion.toString(val);
-				if (EmptyUtil.isNotEmpty(s))
-					output.writeString(i, s);
-			} else if (type.equals(int.class) || type.equals(Integer.class)) {
-				// 整型
-				int n = Conversion.toInt(val);
-				if (n != 0)
-					output.writeInt32(i, n);
-			} else if (type.equals(long.class) || type.equals(Long.class)) {
-				// 长整型
-				long n = Conversion.toLong(val);
-				if (n != 0L)
-					output.writeInt64(i, n);
-			} else if (type.equals(boolean.class) || type.equals(Boolean.class)) {
-				// 布尔
-				boolean n = Conversion.toBoolean(val);
-				if (n != false)
-					output.writeBool(i, n);
-			} else if (type.equals(float.class) || type.equals(Float.class)) {
-				// float型
-				float n = Conversion.toFloat(val);
-				if (n != 0F)
-					output.writeFloat(i, n);
-			} else if (type.equals(double.class) || type.equals(Double.class)) {
-				// Double型
-				double n = Conversion.toDouble(val);
-				if (n != 0D)
-					output.writeDouble(i, n);
-			} else if (type.equals(ByteString.class)) {
-				// 字节字符串
-				ByteString n = (ByteString) val;
-				if (!n.isEmpty())
-					output.writeBytes(i, n);
-			} else if (type.equals(byte[].class)) {
-				// 字节流
-				byte[] n = (byte[]) val;
-				if (EmptyUtil.isNotEmpty(n))
-					output.writeByteArray(i, n);
-			}
+	}
+
+	/**
+	 * 序列化对象写入ByteBuffer
+	 * @param obj 实体对象
+	 * @param buf 字节缓存
+	 * @param delimited 是否写入长度
+	 * @return 写入的字节数 错误返回-1
+	 */
+	private static int write(Object obj, ByteBuffer buf, boolean delimited) {
+		// 缓存嵌套消息长度 计算长度与写入共用
+		boolean begin = MessageCodec.begin();
+		try {
+			Schema schema = Schema.get(obj.getClass());
+			int size = schema.size(obj);
+			CodedOutputStream output = CodedOutputStream.newInstance(buf);
+			if (delimited)
+				output.writeUInt32NoTag(size);
+			schema.write(output, obj);
+			// 刷新后移动position
+			output.flush();
+			return output.getTotalBytesWritten();
+		} catch (Throwable e) {
+			Logs.error(e);
+			return -1;
+		} finally {
+			if (begin)
+				MessageCodec.end();
+		}
+	}
+
+	/**
+	 * 序列化对象写入输出流
+	 * @param obj 实体对象
+	 * @param out 输出流
+	 * @param delimited 是否写入长度
+	 * @return 写入的字节数 错误返回-1
+	 */
+	private static int write(Object obj, OutputStream out, boolean delimited) {
+		// 缓存嵌套消息长度 计算长度与写入共用
+		boolean begin = MessageCodec.begin();
+		try {
+			Schema schema = Schema.get(obj.getClass());
+			int size = schema.size(obj);
+			// 缓存不超过消息长度
+			int total = delimited ? CodedOutputStream.computeUInt32SizeNoTag(size) + size : size;
+			CodedOutputStream output = CodedOutputStream.newInstance(out, Math.max(1, Math.min(total, CommonParams.IO_BUFFERSIZE)));
+			if (delimited)
+				output.writeUInt32NoTag(size);
+			schema.write(output, obj);
+			output.flush();
+			return total;
+		} catch (Throwable e) {
+			Logs.error(e);
+			return -1;
+		} finally {
+			if (begin)
+				MessageCodec.end();
+		}
+	}
+
+	/**
+	 * 反序列化获得对象
+	 * @param input 编码输入流
+	 * @param c 反序列化的对象
+	 * @param <E> 范型
+	 * @return 获得的对象
+	 */
+	private static <E> E toBean(CodedInputStream input, Class<E> c) {
+		try {
+			// 按结构读取对象
+			return read(input, c);
+		} catch (Throwable e) {
+			Logs.error(e);
+			// 错误返回空对象
+			return BeanUtil.newInstance(c);
 		}
 	}
 
+	/**
+	 * 反序列化获得对象 错误抛出异常
+	 * @param input 编码输入流
+	 * @param c 反序列化的对象
+	 * @param <E> 范型
+	 * @return 获得的对象
+	 * @throws Throwable 数据损坏或不完整
+	 */
+	@SuppressWarnings("unchecked")
+	private static <E> E read(CodedInputStream input, Class<E> c) throws Throwable {
+		return (E) Schema.get(c).read(input);
+	}
+
 	private ProtobufEngine() {}
 }
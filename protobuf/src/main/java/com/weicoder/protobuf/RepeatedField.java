@@ -0,0 +1,194 @@
+package com.weicoder.protobuf;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Array;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import com.weicoder.common.constants.ArrayConstants;
+import com.weicoder.common.lang.Lists;
+import com.weicoder.common.lang.Sets;
+import com.weicoder.common.util.BeanUtil;
+
+/**
+ * Protobuf 重复字段 数组或集合 数值类型打包编码 读取时打包与不打包都支持
+ * @author WD
+ */
+final class RepeatedField extends FieldCodec {
+	// 字段类型
+	private Class<?>	type;
+	// 元素编解码
+	private Codec		codec;
+	// 是否数组
+	private boolean		array;
+
+	/**
+	 * 构造
+	 * @param number 字段号
+	 * @param type 字段类型
+	 * @param codec 元素编解码
+	 * @param get 读取字段值
+	 * @param set 设置字段值
+	 */
+	RepeatedField(int number, Class<?> type, Codec codec, MethodHandle get, MethodHandle set) {
+		super(number, Object.class, get, set);
+		this.type = type;
+		this.codec = codec;
+		this.array = type.isArray();
+	}
+
+	@Override
+	int size(Object bean) throws Throwable {
+		Object[] es = elements((Object) get.invokeExact(bean));
+		if (es.length == 0)
+			return 0;
+		// 打包 一个标签和长度
+		if (codec.packable()) {
+			int len = data(es);
+			return tagSize + CodedOutputStream.computeUInt32SizeNoTag(len) + len;
+		}
+		// 每个元素一个标签
+		int size = 0;
+		for (Object e : es)
+			if (e != null)
+				size += tagSize + codec.size(e);
+		return size;
+	}
+
+	@Override
+	void write(CodedOutputStream out, Object bean) throws Throwable {
+		Object[] es = elements((Object) get.invokeExact(bean));
+		if (es.length == 0)
+			return;
+		if (codec.packable()) {
+			// 打包
+			out.writeTag(number, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+			out.writeUInt32NoTag(data(es));
+			for (Object e : es)
+				if (e != null)
+					codec.write(out, e);
+		} else
+			// 每个元素一个标签
+			for (Object e : es)
+				if (e != null) {
+					out.writeTag(number, codec.wireType());
+					codec.write(out, e);
+				}
+	}
+
+	@Override
+	void read(CodedInputStream in, int tag, Object bean) throws Throwable {
+		List<Object> values = Lists.newList();
+		if (read(in, tag, values))
+			add(bean, values);
+	}
+
+	/**
+	 * 是否数组字段 数组字段由Schema收集整个消息的元素后一次设置
+	 * @return 是否数组
+	 */
+	boolean array() {
+		return array;
+	}
+
+	/**
+	 * 读取元素追加到列表 不设置字段
+	 * @param in 输入流
+	 * @param tag 已读取的标签
+	 * @param values 元素列表
+	 * @return 是否读取 编码类型不符时跳过返回false
+	 * @throws Throwable 异常
+	 */
+	boolean read(CodedInputStream in, int tag, List<Object> values) throws Throwable {
+		int wire = WireFormat.getTagWireType(tag);
+		if (wire == WireFormat.WIRETYPE_LENGTH_DELIMITED && codec.packable()) {
+			// 打包的数据
+			int limit = in.pushLimit(in.readRawVarint32());
+			while (in.getBytesUntilLimit() > 0)
+				values.add(codec.read(in));
+			in.popLimit(limit);
+		} else if (wire == codec.wireType())
+			// 单个元素
+			values.add(codec.read(in));
+		else {
+			// 编码类型不符 跳过
+			in.skipField(tag);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * 添加读取的元素到字段 数组字段复制原有元素后追加
+	 * @param bean 对象
+	 * @param values 元素
+	 * @throws Throwable 异常
+	 */
+	@SuppressWarnings("unchecked")
+	void add(Object bean, List<Object> values) throws Throwable {
+		Object v = (Object) get.invokeExact(bean);
+		if (array) {
+			// 数组 复制原有元素后追加
+			int len = v == null ? 0 : Array.getLength(v);
+			Object a = Array.newInstance(type.getComponentType(), len + values.size());
+			if (len > 0)
+				System.arraycopy(v, 0, a, 0, len);
+			for (int i = 0; i < values.size(); i++)
+				Array.set(a, len + i, values.get(i));
+			set.invokeExact(bean, a);
+		} else {
+			// 集合
+			if (v == null)
+				set.invokeExact(bean, v = collection());
+			((Collection<Object>) v).addAll(values);
+		}
+	}
+
+	/**
+	 * 创建集合
+	 * @return 集合
+	 */
+	private Object collection() {
+		if (type.isInterface() || Modifier.isAbstract(type.getModifiers()))
+			return Set.class.isAssignableFrom(type) ? Sets.newSet() : Lists.newList();
+		return BeanUtil.newInstance(type);
+	}
+
+	/**
+	 * 打包数据长度
+	 * @param es 元素
+	 * @return 长度
+	 * @throws Throwable 异常
+	 */
+	private int data(Object[] es) throws Throwable {
+		int len = 0;
+		for (Object e : es)
+			if (e != null)
+				len += codec.size(e);
+		return len;
+	}
+
+	/**
+	 * 获得字段的所有元素
+	 * @param v 字段值
+	 * @return 元素
+	 */
+	private Object[] elements(Object v) {
+		if (v == null)
+			return ArrayConstants.OBJECT_EMPTY;
+		if (!array)
+			return ((Collection<?>) v).toArray();
+		if (!type.getComponentType().isPrimitive())
+			return (Object[]) v;
+		// 基础类型数组装箱
+		Object[] es = new Object[Array.getLength(v)];
+		for (int i = 0; i < es.length; i++)
+			es[i] = Array.get(v, i);
+		return es;
+	}
+}
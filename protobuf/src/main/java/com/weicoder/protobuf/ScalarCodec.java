@@ -0,0 +1,256 @@
+package com.weicoder.protobuf;
+
+import java.io.IOException;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import com.weicoder.common.constants.ArrayConstants;
+import com.weicoder.common.constants.StringConstants;
+
+/**
+ * Protobuf 基础类型编解码
+ * @author WD
+ */
+enum ScalarCodec implements Codec {
+	/** 字符串 */
+	STRING(WireFormat.WIRETYPE_LENGTH_DELIMITED, StringConstants.EMPTY) {
+		@Override
+		public boolean isDefault(Object v) {
+			return ((String) v).isEmpty();
+		}
+
+		@Override
+		public int size(Object v) {
+			return CodedOutputStream.computeStringSizeNoTag((String) v);
+		}
+
+		@Override
+		public void write(CodedOutputStream out, Object v) throws IOException {
+			out.writeStringNoTag((String) v);
+		}
+
+		@Override
+		public Object read(CodedInputStream in) throws IOException {
+			return in.readStringRequireUtf8();
+		}
+	},
+	/** 整型 */
+	INT32(WireFormat.WIRETYPE_VARINT, 0) {
+		@Override
+		public int size(Object v) {
+			return CodedOutputStream.computeInt32SizeNoTag((Integer) v);
+		}
+
+		@Override
+		public void write(CodedOutputStream out, Object v) throws IOException {
+			out.writeInt32NoTag((Integer) v);
+		}
+
+		@Override
+		public Object read(CodedInputStream in) throws IOException {
+			return in.readInt32();
+		}
+	},
+	/** 短整型 按int32编码 */
+	INT16(WireFormat.WIRETYPE_VARINT, (short) 0) {
+		@Override
+		public int size(Object v) {
+			return CodedOutputStream.computeInt32SizeNoTag((Short) v);
+		}
+
+		@Override
+		public void write(CodedOutputStream out, Object v) throws IOException {
+			out.writeInt32NoTag((Short) v);
+		}
+
+		@Override
+		public Object read(CodedInputStream in) throws IOException {
+			return (short) in.readInt32();
+		}
+	},
+	/** 字节 按int32编码 */
+	INT8(WireFormat.WIRETYPE_VARINT, (byte) 0) {
+		@Override
+		public int size(Object v) {
+			return CodedOutputStream.computeInt32SizeNoTag((Byte) v);
+		}
+
+		@Override
+		public void write(CodedOutputStream out, Object v) throws IOException {
+			out.writeInt32NoTag((Byte) v);
+		}
+
+		@Override
+		public Object read(CodedInputStream in) throws IOException {
+			return (byte) in.readInt32();
+		}
+	},
+	/** 长整型 */
+	INT64(WireFormat.WIRETYPE_VARINT, 0L) {
+		@Override
+		public int size(Object v) {
+			return CodedOutputStream.computeInt64SizeNoTag((Long) v);
+		}
+
+		@Override
+		public void write(CodedOutputStream out, Object v) throws IOException {
+			out.writeInt64NoTag((Long) v);
+		}
+
+		@Override
+		public Object read(CodedInputStream in) throws IOException {
+			return in.readInt64();
+		}
+	},
+	/** 布尔 */
+	BOOL(WireFormat.WIRETYPE_VARINT, false) {
+		@Override
+		public int size(Object v) {
+			return 1;
+		}
+
+		@Override
+		public void write(CodedOutputStream out, Object v) throws IOException {
+			out.writeBoolNoTag((Boolean) v);
+		}
+
+		@Override
+		public Object read(CodedInputStream in) throws IOException {
+			return in.readBool();
+		}
+	},
+	/** float型 */
+	FLOAT(WireFormat.WIRETYPE_FIXED32, 0F) {
+		@Override
+		public int size(Object v) {
+			return 4;
+		}
+
+		@Override
+		public void write(CodedOutputStream out, Object v) throws IOException {
+			out.writeFloatNoTag((Float) v);
+		}
+
+		@Override
+		public Object read(CodedInputStream in) throws IOException {
+			return in.readFloat();
+		}
+	},
+	/** double型 */
+	DOUBLE(WireFormat.WIRETYPE_FIXED64, 0D) {
+		@Override
+		public int size(Object v) {
+			return 8;
+		}
+
+		@Override
+		public void write(CodedOutputStream out, Object v) throws IOException {
+			out.writeDoubleNoTag((Double) v);
+		}
+
+		@Override
+		public Object read(CodedInputStream in) throws IOException {
+			return in.readDouble();
+		}
+	},
+	/** 字节字符串 */
+	BYTES(WireFormat.WIRETYPE_LENGTH_DELIMITED, ByteString.EMPTY) {
+		@Override
+		public boolean isDefault(Object v) {
+			return ((ByteString) v).isEmpty();
+		}
+
+		@Override
+		public int size(Object v) {
+			return CodedOutputStream.computeBytesSizeNoTag((ByteString) v);
+		}
+
+		@Override
+		public void write(CodedOutputStream out, Object v) throws IOException {
+			out.writeBytesNoTag((ByteString) v);
+		}
+
+		@Override
+		public Object read(CodedInputStream in) throws IOException {
+			return in.readBytes();
+		}
+	},
+	/** 字节数组 */
+	BYTE_ARRAY(WireFormat.WIRETYPE_LENGTH_DELIMITED, ArrayConstants.BYTES_EMPTY) {
+		@Override
+		public boolean isDefault(Object v) {
+			return ((byte[]) v).length == 0;
+		}
+
+		@Override
+		public int size(Object v) {
+			return CodedOutputStream.computeByteArraySizeNoTag((byte[]) v);
+		}
+
+		@Override
+		public void write(CodedOutputStream out, Object v) throws IOException {
+			out.writeByteArrayNoTag((byte[]) v);
+		}
+
+		@Override
+		public Object read(CodedInputStream in) throws IOException {
+			return in.readByteArray();
+		}
+	};
+
+	// 编码类型
+	private final int		wire;
+	// 默认值
+	private final Object	empty;
+
+	private ScalarCodec(int wire, Object empty) {
+		this.wire = wire;
+		this.empty = empty;
+	}
+
+	/**
+	 * 获得类型对应的编解码器
+	 * @param c 类型
+	 * @return 编解码器 不是基础类型返回null
+	 */
+	static ScalarCodec of(Class<?> c) {
+		if (c.equals(String.class))
+			return STRING;
+		if (c.equals(int.class) || c.equals(Integer.class))
+			return INT32;
+		if (c.equals(long.class) || c.equals(Long.class))
+			return INT64;
+		if (c.equals(boolean.class) || c.equals(Boolean.class))
+			return BOOL;
+		if (c.equals(float.class) || c.equals(Float.class))
+			return FLOAT;
+		if (c.equals(double.class) || c.equals(Double.class))
+			return DOUBLE;
+		if (c.equals(short.class) || c.equals(Short.class))
+			return INT16;
+		if (c.equals(byte.class) || c.equals(Byte.class))
+			return INT8;
+		if (c.equals(ByteString.class))
+			return BYTES;
+		if (c.equals(byte[].class))
+			return BYTE_ARRAY;
+		return null;
+	}
+
+	@Override
+	public int wireType() {
+		return wire;
+	}
+
+	@Override
+	public boolean isDefault(Object v) {
+		return empty.equals(v);
+	}
+
+	@Override
+	public Object empty() {
+		return empty;
+	}
+}
@@ -0,0 +1,155 @@
+package com.weicoder.protobuf;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Map;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import com.weicoder.common.lang.Lists;
+import com.weicoder.common.lang.Maps;
+import com.weicoder.common.log.Logs;
+import com.weicoder.common.util.BeanUtil;
+
+/**
+ * Protobuf 消息结构 每个类只解析一次 字段号为字段在BeanUtil.getFields中的位置从1开始<br/>
+ * 静态 transient 和不支持类型的字段不编码 但仍占用字段号
+ * @author WD
+ */
+final class Schema {
+	// 按类缓存结构
+	private final static Map<Class<?>, Schema>	SCHEMAS	= Maps.newConcurrentMap();
+	// 消息类
+	private Class<?>							type;
+	// 无参构造
+	private MethodHandle						constructor;
+	// 编码的字段 按字段号顺序
+	private FieldCodec[]						fields;
+	// 以字段号为下标的字段
+	private FieldCodec[]						numbers;
+	// 以字段号为下标的数组字段 读取时收集元素 消息结束后一次生成数组 没有数组字段为null
+	private RepeatedField[]						arrays;
+
+	/**
+	 * 获得类的结构
+	 * @param c 类
+	 * @return 结构
+	 */
+	static Schema get(Class<?> c) {
+		Schema s = SCHEMAS.get(c);
+		if (s == null) {
+			// 不在computeIfAbsent中解析 嵌套类型会递归获取
+			s = new Schema(c);
+			Schema o = SCHEMAS.putIfAbsent(c, s);
+			if (o != null)
+				s = o;
+		}
+		return s;
+	}
+
+	/**
+	 * 构造 解析字段
+	 * @param type 消息类
+	 */
+	private Schema(Class<?> type) {
+		this.type = type;
+		// 无参构造
+		try {
+			Constructor<?> c = type.getDeclaredConstructor();
+			c.setAccessible(true);
+			constructor = MethodHandles.lookup().unreflectConstructor(c).asType(MethodType.methodType(Object.class));
+		} catch (Exception e) {
+			constructor = null;
+		}
+		// 解析字段
+		List<Field> list = BeanUtil.getFields(type);
+		List<FieldCodec> codecs = Lists.newList();
+		numbers = new FieldCodec[list.size() + 1];
+		for (int i = 0; i < list.size(); i++) {
+			Field f = list.get(i);
+			int m = f.getModifiers();
+			if (Modifier.isStatic(m) || Modifier.isTransient(m) || f.isSynthetic())
+				continue;
+			try {
+				FieldCodec c = FieldCodec.of(i + 1, f);
+				if (c != null) {
+					codecs.add(numbers[i + 1] = c);
+					if (c instanceof RepeatedField && ((RepeatedField) c).array()) {
+						if (arrays == null)
+							arrays = new RepeatedField[numbers.length];
+						arrays[i + 1] = (RepeatedField) c;
+					}
+				}
+				else
+					Logs.debug("protobuf unsupported field class={};field={};type={}", type.getName(), f.getName(), f.getType());
+			} catch (Exception e) {
+				Logs.warn("protobuf field class={};field={};error={}", type.getName(), f.getName(), e);
+			}
+		}
+		fields = codecs.toArray(new FieldCodec[codecs.size()]);
+	}
+
+	/**
+	 * 编码后长度
+	 * @param bean 对象
+	 * @return 长度
+	 * @throws Throwable 异常
+	 */
+	int size(Object bean) throws Throwable {
+		int size = 0;
+		for (FieldCodec f : fields)
+			size += f.size(bean);
+		return size;
+	}
+
+	/**
+	 * 写入对象
+	 * @param out 输出流
+	 * @param bean 对象
+	 * @throws Throwable 异常
+	 */
+	void write(CodedOutputStream out, Object bean) throws Throwable {
+		for (FieldCodec f : fields)
+			f.write(out, bean);
+	}
+
+	/**
+	 * 读取对象 读到标签0或长度限制为止
+	 * @param in 输入流
+	 * @return 对象
+	 * @throws Throwable 异常
+	 */
+	@SuppressWarnings("unchecked")
+	Object read(CodedInputStream in) throws Throwable {
+		Object bean = constructor == null ? BeanUtil.newInstance(type) : (Object) constructor.invokeExact();
+		// 数组字段的元素 不打包时每个元素一个标签 逐个追加会反复复制数组
+		List<Object>[] values = null;
+		for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+			int n = WireFormat.getTagFieldNumber(tag);
+			FieldCodec f = n < numbers.length ? numbers[n] : null;
+			// 未知字段跳过
+			if (f == null)
+				in.skipField(tag);
+			else if (arrays != null && arrays[n] != null) {
+				if (values == null)
+					values = new List[numbers.length];
+				if (values[n] == null)
+					values[n] = Lists.newList();
+				arrays[n].read(in, tag, values[n]);
+			} else
+				f.read(in, tag, bean);
+		}
+		// 消息结束 一次生成数组字段
+		if (values != null)
+			for (int n = 0; n < values.length; n++)
+				if (values[n] != null && !values[n].isEmpty())
+					arrays[n].add(bean, values[n]);
+		return bean;
+	}
+}
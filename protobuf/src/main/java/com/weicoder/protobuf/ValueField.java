@@ -0,0 +1,52 @@
+package com.weicoder.protobuf;
+
+import java.lang.invoke.MethodHandle;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+/**
+ * Protobuf 单个值字段 包装类型 字符串 字节 枚举 嵌套消息 null和默认值不编码
+ * @author WD
+ */
+final class ValueField extends FieldCodec {
+	// 值编解码
+	private Codec codec;
+
+	/**
+	 * 构造
+	 * @param number 字段号
+	 * @param codec 值编解码
+	 * @param get 读取字段值
+	 * @param set 设置字段值
+	 */
+	ValueField(int number, Codec codec, MethodHandle get, MethodHandle set) {
+		super(number, Object.class, get, set);
+		this.codec = codec;
+	}
+
+	@Override
+	int size(Object bean) throws Throwable {
+		Object v = (Object) get.invokeExact(bean);
+		return v == null || codec.isDefault(v) ? 0 : tagSize + codec.size(v);
+	}
+
+	@Override
+	void write(CodedOutputStream out, Object bean) throws Throwable {
+		Object v = (Object) get.invokeExact(bean);
+		if (v == null || codec.isDefault(v))
+			return;
+		out.writeTag(number, codec.wireType());
+		codec.write(out, v);
+	}
+
+	@Override
+	void read(CodedInputStream in, int tag, Object bean) throws Throwable {
+		// 编码类型不符 跳过
+		if (WireFormat.getTagWireType(tag) != codec.wireType())
+			in.skipField(tag);
+		else
+			set.invokeExact(bean, codec.read(in));
+	}
+}
@@ -1,5 +1,7 @@
 package com.weicoder.socket;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Socket 客户端
  * @author WD
@@ -11,8 +13,29 @@ public interface Client extends AutoCloseable {
 	void connect();
 
 	/**
-	 * 获得客户端Session
-	 * @return Session
+	 * 获得客户端Session 多个连接时按配置的方式选择一个可用连接
+	 * @return Session 没有可用连接时为null
 	 */
 	Session session();
-}
\ No newline at end of file
+
+	/**
+	 * 发送请求并等待相同关联ID的回复 需要服务端与客户端都开启correlate 超时使用配置的request时间
+	 * @param id 指令
+	 * @param message 消息
+	 * @param type 回复的类型
+	 * @param <E> 泛型
+	 * @return 回复
+	 */
+	<E> CompletableFuture<E> request(short id, Object message, Class<E> type);
+
+	/**
+	 * 发送请求并等待相同关联ID的回复 需要服务端与客户端都开启correlate
+	 * @param id 指令
+	 * @param message 消息
+	 * @param type 回复的类型
+	 * @param timeout 超时时间 毫秒
+	 * @param <E> 泛型
+	 * @return 回复
+	 */
+	<E> CompletableFuture<E> request(short id, Object message, Class<E> type, long timeout);
+}
@@ -0,0 +1,304 @@
+package com.weicoder.socket;
+
+import java.util.Map;
+
+import com.weicoder.common.lang.Maps;
+import com.weicoder.protobuf.Protobuf;
+import com.weicoder.protobuf.ProtobufEngine;
+import com.weicoder.socket.params.SocketParams;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Socket 帧格式 长度头 short(ID) [int(关联ID)] byte[] 长度不算长度头本身<br/>
+ * 长度头按配置为short int或varint 大数据使用int或varint 并由最大帧长度限制
+ * @author WD
+ */
+public final class Frame {
+	/** 2字节长度头 */
+	public final static String					SHORT	= "short";
+	/** 4字节长度头 */
+	public final static String					INT		= "int";
+	/** 变长长度头 每字节7位 低位在前 */
+	public final static String					VARINT	= "varint";
+	// 按名称保存帧格式
+	private final static Map<String, Frame>	FRAMES	= Maps.newConcurrentMap();
+	// 长度头类型
+	private String								type;
+	// 是否带关联ID
+	private boolean								correlate;
+	// 最大帧长度
+	private int									max;
+	// 是否压缩 与解码使用相同的按名称配置
+	private boolean								zip;
+
+	/**
+	 * 获得帧格式
+	 * @param name 名称
+	 * @return 帧格式
+	 */
+	public static Frame get(String name) {
+		return FRAMES.computeIfAbsent(name, Frame::new);
+	}
+
+	/**
+	 * 构造
+	 * @param name 名称
+	 */
+	private Frame(String name) {
+		this.type = SocketParams.getFrame(name);
+		this.correlate = SocketParams.isCorrelate(name);
+		this.zip = SocketParams.isZip(name);
+		this.max = SHORT.equals(type) ? Math.min(Short.MAX_VALUE, SocketParams.getMaxFrame(name)) : SocketParams.getMaxFrame(name);
+	}
+
+	/**
+	 * 最大帧长度
+	 * @return 最大帧长度
+	 */
+	public int max() {
+		return max;
+	}
+
+	/**
+	 * 帧内指令和关联ID的长度
+	 * @return 长度
+	 */
+	public int head() {
+		return correlate ? 6 : 2;
+	}
+
+	/**
+	 * 包装数据
+	 * @param id 指令
+	 * @param corr 关联ID 0为不需要回复的消息 不带关联ID时忽略
+	 * @param message 消息
+	 * @return 字节数组
+	 */
+	public byte[] pack(short id, int corr, Object message) {
+		// Protobuf消息直接编码到结果数组
+		int size = protobuf(message);
+		if (size >= 0) {
+			int len = check(size + head());
+			return protobuf(write(Unpooled.buffer(size(len) + len), len, id, corr), message, size).array();
+		}
+		byte[] data = Sockets.toBytes(message, zip);
+		int len = check(data.length + head());
+		ByteBuf buf = Unpooled.buffer(size(len) + len);
+		return write(buf, len, id, corr).writeBytes(data).array();
+	}
+
+	/**
+	 * 包装不带指令的数据 长度头按帧格式 长度超过最大帧长度时抛出异常
+	 * @param message 消息
+	 * @return 字节数组
+	 */
+	public byte[] pack(Object message) {
+		byte[] data = Sockets.toBytes(message, zip);
+		int len = check(data.length);
+		ByteBuf buf = Unpooled.buffer(size(len) + len);
+		length(buf, len);
+		return buf.writeBytes(data).array();
+	}
+
+	/**
+	 * 包装数据到池化ByteBuf 用于广播等共享同一份数据的场景 使用后需要释放
+	 * @param id 指令
+	 * @param corr 关联ID 0为不需要回复的消息 不带关联ID时忽略
+	 * @param message 消息
+	 * @return ByteBuf
+	 */
+	public ByteBuf buffer(short id, int corr, Object message) {
+		// Protobuf消息直接编码到池化ByteBuf
+		int size = protobuf(message);
+		if (size >= 0) {
+			int len = check(size + head());
+			return protobuf(write(PooledByteBufAllocator.DEFAULT.buffer(size(len) + len), len, id, corr), message, size);
+		}
+		byte[] data = Sockets.toBytes(message, zip);
+		int len = check(data.length + head());
+		ByteBuf buf = PooledByteBufAllocator.DEFAULT.buffer(size(len) + len);
+		return write(buf, len, id, corr).writeBytes(data);
+	}
+
+	/**
+	 * 写入帧头 用于流式发送大数据 后面需要跟着写入length字节的数据
+	 * @param id 指令
+	 * @param corr 关联ID 不带关联ID时忽略
+	 * @param length 数据长度
+	 * @return 池化ByteBuf 使用后需要释放
+	 */
+	public ByteBuf header(short id, int corr, int length) {
+		int len = check(length + head());
+		return write(PooledByteBufAllocator.DEFAULT.buffer(size(len) + head()), len, id, corr);
+	}
+
+	/**
+	 * 读取帧长度 不移动读坐标
+	 * @param in 数据
+	 * @return 长度头的字节数在高32位 帧长度在低32位 数据不足时返回-1
+	 */
+	public long length(ByteBuf in) {
+		int index = in.readerIndex();
+		int readable = in.readableBytes();
+		switch (type) {
+			case INT:
+				if (readable < 4)
+					return -1;
+				return (4L << 32) | ((SocketParams.HIGH ? in.getInt(index) : in.getIntLE(index)) & 0xFFFFFFFFL);
+			case VARINT:
+				int len = 0;
+				for (int i = 0; i < 5; i++) {
+					if (readable <= i)
+						return -1;
+					byte b = in.getByte(index + i);
+					len |= (b & 0x7F) << (7 * i);
+					if (b >= 0)
+						return ((long) (i + 1) << 32) | (len & 0xFFFFFFFFL);
+				}
+				// 超过5字节 长度非法
+				return (5L << 32) | 0xFFFFFFFFL;
+			default:
+				if (readable < 2)
+					return -1;
+				return (2L << 32) | ((SocketParams.HIGH ? in.getShort(index) : in.getShortLE(index)) & 0xFFFFFFFFL);
+		}
+	}
+
+	/**
+	 * 帧长度是否合法
+	 * @param len 帧长度
+	 * @return 是否合法
+	 */
+	public boolean valid(int len) {
+		return len >= head() && len <= max;
+	}
+
+	/**
+	 * 读取完整帧数据的指令 不移动读坐标
+	 * @param buf 包含长度头的帧
+	 * @return 指令 数据不足时为0
+	 */
+	public short id(ByteBuf buf) {
+		long l = length(buf);
+		int index = buf.readerIndex() + (int) (l >>> 32);
+		if (l < 0 || buf.writerIndex() < index + 2)
+			return 0;
+		return SocketParams.HIGH ? buf.getShort(index) : buf.getShortLE(index);
+	}
+
+	/**
+	 * 读取完整帧数据的指令
+	 * @param data 包含长度头的帧
+	 * @return 指令 数据不足时为0
+	 */
+	public short id(byte[] data) {
+		return id(Unpooled.wrappedBuffer(data));
+	}
+
+	/**
+	 * 可以直接编码的Protobuf消息长度 不压缩时Protobuf消息不经过中间数组
+	 * @param message 消息
+	 * @return 长度 不能直接编码返回-1
+	 */
+	private int protobuf(Object message) {
+		return !zip && message != null && message.getClass().isAnnotationPresent(Protobuf.class) ? ProtobufEngine.size(message) : -1;
+	}
+
+	/**
+	 * 把Protobuf消息编码到帧头之后 写入长度与帧头声明的不一致时释放ByteBuf并抛出异常
+	 * @param buf 已写入帧头的ByteBuf
+	 * @param message 消息
+	 * @param size 消息长度
+	 * @return ByteBuf
+	 */
+	private ByteBuf protobuf(ByteBuf buf, Object message, int size) {
+		int n = ProtobufEngine.write(message, buf.nioBuffer(buf.writerIndex(), size));
+		if (n != size) {
+			buf.release();
+			throw new IllegalStateException("socket protobuf encode failed size=" + size + ";write=" + n + ";class=" + message.getClass().getName());
+		}
+		return buf.writerIndex(buf.writerIndex() + size);
+	}
+
+	/**
+	 * 检查帧长度
+	 * @param len 帧长度
+	 * @return 帧长度
+	 */
+	private int check(int len) {
+		if (len > max)
+			throw new IllegalArgumentException("socket frame too large len=" + len + ";max=" + max);
+		return len;
+	}
+
+	/**
+	 * 长度头字节数
+	 * @param len 帧长度
+	 * @return 字节数
+	 */
+	private int size(int len) {
+		switch (type) {
+			case INT:
+				return 4;
+			case VARINT:
+				return len < 1 << 7 ? 1 : len < 1 << 14 ? 2 : len < 1 << 21 ? 3 : len < 1 << 28 ? 4 : 5;
+			default:
+				return 2;
+		}
+	}
+
+	/**
+	 * 写入长度头 指令 关联ID
+	 * @param buf ByteBuf
+	 * @param len 帧长度
+	 * @param id 指令
+	 * @param corr 关联ID
+	 * @return ByteBuf
+	 */
+	private ByteBuf write(ByteBuf buf, int len, short id, int corr) {
+		// 长度头
+		length(buf, len);
+		// 指令 关联ID
+		if (SocketParams.HIGH) {
+			buf.writeShort(id);
+			if (correlate)
+				buf.writeInt(corr);
+		} else {
+			buf.writeShortLE(id);
+			if (correlate)
+				buf.writeIntLE(corr);
+		}
+		return buf;
+	}
+
+	/**
+	 * 写入长度头
+	 * @param buf ByteBuf
+	 * @param len 帧长度
+	 */
+	private void length(ByteBuf buf, int len) {
+		switch (type) {
+			case INT:
+				if (SocketParams.HIGH)
+					buf.writeInt(len);
+				else
+					buf.writeIntLE(len);
+				break;
+			case VARINT:
+				while ((len & ~0x7F) != 0) {
+					buf.writeByte((len & 0x7F) | 0x80);
+					len >>>= 7;
+				}
+				buf.writeByte(len);
+				break;
+			default:
+				if (SocketParams.HIGH)
+					buf.writeShort(len);
+				else
+					buf.writeShortLE(len);
+		}
+	}
+}
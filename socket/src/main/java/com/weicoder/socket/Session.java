@@ -1,5 +1,7 @@
 package com.weicoder.socket;
 
+import java.io.InputStream;
+
 import com.weicoder.common.binary.Buffer;
 
 /**
@@ -50,6 +52,14 @@ public interface Session extends AutoCloseable {
 	 */
 	void send(short id, Object message);
 
+	/**
+	 * 写入带关联ID的数据 用于请求和回复
+	 * @param id 指令
+	 * @param corr 关联ID 0为不需要回复的消息 帧格式不带关联ID时忽略
+	 * @param message 消息
+	 */
+	void send(short id, int corr, Object message);
+
 	/**
 	 * 写入数据
 	 * @param message 消息
@@ -57,7 +67,7 @@ public interface Session extends AutoCloseable {
 	void send(Object message);
 
 	/**
-	 * 写入数据
+	 * 写入数据 原样发送 不记录指令统计
 	 * @param data 原始数据
 	 */
 	void send(byte[] data);
@@ -81,11 +91,25 @@ public interface Session extends AutoCloseable {
 	 */
 	void write(byte[] data);
 
+	/**
+	 * 流式发送大数据 按块读取写入 不整体读入内存 需要帧长度头为int或varint 数据不压缩
+	 * @param id 指令
+	 * @param in 输入流 发送完成后关闭
+	 * @param length 数据长度
+	 */
+	void stream(short id, InputStream in, int length);
+
 	/**
 	 * 把缓存区的数据一次性写入
 	 */
 	void flush();
 
+	/**
+	 * 是否可写 不可写时写入的数据进入发送队列 可以用来判断是否需要减少发送
+	 * @return 是否可写
+	 */
+	boolean isWritable();
+
 	/**
 	 * 设置绑定的对象 一般为用户
 	 * @param <E> 泛型
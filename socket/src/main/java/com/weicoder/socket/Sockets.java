@@ -3,6 +3,7 @@ package com.weicoder.socket;
 import com.weicoder.common.constants.ArrayConstants;
 import com.weicoder.common.lang.Bytes;
 import com.weicoder.common.lang.Conversion;
+import com.weicoder.common.util.CloseUtil;
 import com.weicoder.common.util.StringUtil;
 import com.weicoder.common.zip.ZipEngine;
 import com.weicoder.protobuf.Protobuf;
@@ -11,6 +12,8 @@ import com.weicoder.socket.manager.Manager;
 import com.weicoder.socket.netty.NettyClient;
 import com.weicoder.socket.netty.NettyServer;
 import com.weicoder.socket.params.SocketParams;
+import com.weicoder.socket.process.Metrics;
+
 
 /**
  * Socket 相关类
@@ -37,9 +40,9 @@ public final class Sockets {
 			client = new NettyClient("client");
 		// 初始化 服务端
 		if (SocketParams.CONFIG.exists("server.port")) {
+			// 设置管理器 需要在处理器之前初始化
+			manager = new Manager("server");
 			server = new NettyServer("server");
-			// 设置管理器
-			manager = new Manager();
 		}
 		// 启动服务器
 		if (server != null)
@@ -49,6 +52,15 @@ public final class Sockets {
 			client.connect();
 	}
 
+	/**
+	 * 关闭客户端和Session管理器
+	 */
+	public static void close() {
+		CloseUtil.close(client);
+		if (manager != null)
+			manager.close();
+	}
+
 	/**
 	 * 获得服务器
 	 * @return 服务器
@@ -65,6 +77,15 @@ public final class Sockets {
 		return manager;
 	}
 
+	/**
+	 * 获得统计
+	 * @param name 名称 server或client
+	 * @return 统计
+	 */
+	public static Metrics metrics(String name) {
+		return Metrics.get(name);
+	}
+
 	/**
 	 * 获得客户端
 	 * @return Client
@@ -74,7 +95,7 @@ public final class Sockets {
 	}
 
 	/**
-	 * 包装数据
+	 * 包装数据 short(长度) short(指令) byte[] 长度超过short时抛出IllegalArgumentException
 	 * @param id 指令
 	 * @param message 消息
 	 * @return 字节数组
@@ -82,20 +103,57 @@ public final class Sockets {
 	public static byte[] pack(short id, Object message) {
 		// 声明字节数组
 		byte[] data = toBytes(message);
-		// 返回数据
-		return Bytes.toBytes(Conversion.toShort(data.length + 2), id, data);
+		// 返回数据 长度超过short时抛出异常 不截断
+		return Bytes.toBytes(length(data.length + 2), id, data);
+	}
+
+	/**
+	 * 包装带关联ID的数据 short(长度) short(指令) int(关联ID) byte[]
+	 * @param id 指令
+	 * @param corr 关联ID 0为不需要回复的消息
+	 * @param message 消息
+	 * @return 字节数组
+	 */
+	public static byte[] pack(short id, int corr, Object message) {
+		// 声明字节数组
+		byte[] data = toBytes(message);
+		// 返回数据 长度超过short时抛出异常 不截断
+		return Bytes.toBytes(length(data.length + 6), id, corr, data);
 	}
 
 	/**
-	 * 包装数据
+	 * 包装不带指令的数据 short(长度) byte[] 长度超过short时抛出IllegalArgumentException
 	 * @param message 消息
 	 * @return 字节数组
 	 */
 	public static byte[] pack(Object message) {
 		// 声明字节数组
 		byte[] data = toBytes(message);
-		// 返回数据
-		return Bytes.toBytes(Conversion.toShort(data.length), data);
+		// 返回数据 长度超过short时抛出异常 不截断
+		return Bytes.toBytes(length(data.length), data);
+	}
+
+	/**
+	 * 转换字节数组为对象 与toBytes对应
+	 * @param data 字节数组
+	 * @param c 对象类型
+	 * @param <E> 泛型
+	 * @return 对象
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E> E toBean(byte[] data, Class<E> c) {
+		// 判断类型
+		if (c == null || c.equals(byte[].class))
+			// 字节数组
+			return (E) data;
+		if (c.equals(String.class))
+			// 字符串
+			return (E) StringUtil.toString(data);
+		if (c.isAnnotationPresent(Protobuf.class))
+			// Protobuf
+			return ProtobufEngine.toBean(data, c);
+		// 其它类型
+		return (E) Bytes.to(data, c);
 	}
 
 	/**
@@ -104,6 +162,16 @@ public final class Sockets {
 	 * @return 字节数组
 	 */
 	public static byte[] toBytes(Object message) {
+		return toBytes(message, zip);
+	}
+
+	/**
+	 * 转换message为字节数组
+	 * @param message 消息
+	 * @param zip 是否压缩 与接收方按名称的配置一致
+	 * @return 字节数组
+	 */
+	public static byte[] toBytes(Object message, boolean zip) {
 		// 声明字节数组
 		byte[] data = null;
 		// 判断类型
@@ -123,5 +191,16 @@ public final class Sockets {
 		return zip && data.length > Byte.MAX_VALUE ? ZipEngine.compress(data) : data;
 	}
 
+	/**
+	 * 检查short长度头的长度
+	 * @param len 长度
+	 * @return short长度
+	 */
+	private static short length(int len) {
+		if (len > Short.MAX_VALUE)
+			throw new IllegalArgumentException("socket short frame too large len=" + len + ";max=" + Short.MAX_VALUE);
+		return (short) len;
+	}
+
 	private Sockets() {}
 }
\ No newline at end of file
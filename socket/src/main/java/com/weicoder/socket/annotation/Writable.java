@@ -0,0 +1,14 @@
+package com.weicoder.socket.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Session 可写状态变化处理器 参数可以为Session与boolean(是否可写) 在Netty线程调用
+ * @author WD
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Writable {}
@@ -5,12 +5,13 @@ import java.net.SocketAddress;
 
 import com.weicoder.common.binary.Buffer;
 import com.weicoder.common.constants.StringConstants;
-import com.weicoder.common.lang.Bytes;
 import com.weicoder.common.lang.Conversion;
+import com.weicoder.common.util.DateUtil;
 import com.weicoder.common.util.StringUtil;
 import com.weicoder.common.log.Logs;
+import com.weicoder.socket.Frame;
 import com.weicoder.socket.Session;
-import com.weicoder.socket.Sockets;
+import com.weicoder.socket.process.Metrics;
 
 /**
  * 基础Socket Session实现
@@ -31,6 +32,10 @@ public abstract class BaseSession implements Session {
 	protected Buffer	buffer;
 	// 保存属性 一般为绑定的对象
 	protected Object	obj;
+	// 帧格式
+	protected Frame		frame;
+	// 统计
+	protected Metrics	metrics;
 
 	/**
 	 * 构造
@@ -41,6 +46,12 @@ public abstract class BaseSession implements Session {
 		this.name = name;
 		// 声明缓存
 		buffer = new Buffer();
+		// 连接时间作为初始心跳
+		heart = DateUtil.getTime();
+		// 帧格式
+		frame = Frame.get(name);
+		// 统计
+		metrics = Metrics.get(name);
 	}
 
 	@Override
@@ -60,22 +71,35 @@ public abstract class BaseSession implements Session {
 
 	@Override
 	public void send(short id, Object message) {
-		send(Sockets.pack(id, message));
+		send(id, 0, message);
+	}
+
+	@Override
+	public void send(short id, int corr, Object message) {
+		byte[] data = frame.pack(id, corr, message);
+		// 发送数据
+		write(data);
+		flush();
+		// 记录发送字节 指令已知 不从数据解析
+		metrics.counter(id).send(data.length);
+		Logs.debug("name={};socket={};send len={};id={}", name, this.id, data.length, id);
 	}
 
 	@Override
 	public void send(Object message) {
-		send(Sockets.pack(message));
+		send(frame.pack(message));
 	}
 
 	@Override
 	public void write(short id, Object message) {
-		write(Sockets.pack(id, message));
+		byte[] data = frame.pack(id, 0, message);
+		metrics.counter(id).send(data.length);
+		write(data);
 	}
 
 	@Override
 	public void write(Object message) {
-		write(Sockets.pack(message));
+		write(frame.pack(message));
 	}
 
 	@Override
@@ -95,10 +119,10 @@ public abstract class BaseSession implements Session {
 
 	@Override
 	public void send(byte[] data) {
-		// 发送数据
+		// 发送数据 原始数据没有指令 由调用方记录统计
 		write(data);
 		flush();
-		Logs.info("name={};socket={};send len={};id={}", name, id, data.length, Bytes.toShort(data, 4));
+		Logs.debug("name={};socket={};send len={}", name, id, data.length);
 	}
 
 	@Override
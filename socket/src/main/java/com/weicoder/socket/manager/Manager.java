@@ -1,8 +1,8 @@
 package com.weicoder.socket.manager;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 import com.weicoder.common.lang.Lists;
@@ -13,45 +13,87 @@ import com.weicoder.common.util.EmptyUtil;
 import com.weicoder.common.log.Logs;
 import com.weicoder.socket.params.SocketParams;
 import com.weicoder.socket.Session;
-import com.weicoder.socket.Sockets;
+import com.weicoder.socket.Frame;
+import com.weicoder.socket.netty.NettySession;
+import com.weicoder.socket.process.Counter;
+import com.weicoder.socket.process.Metrics;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoop;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.concurrent.DefaultThreadFactory;
 
 /**
  * Session管理类
  * @author WD
  */
-public final class Manager {
+public final class Manager implements AutoCloseable {
 	// 保存注册的Session
-	private Map<Long, Session> registers;
+	private Map<Long, Session>	registers;
+	// 每个Session在时间轮上的超时检测 删除时取消
+	private Map<Long, Timeout>	timeouts;
+	// 心跳检测时间轮 刻度为检测时间
+	private Timer				timer;
+	// 帧格式
+	private Frame				frame;
+	// 统计
+	private Metrics				metrics;
 
-	public Manager() {
+	/**
+	 * 构造
+	 * @param name 名称
+	 */
+	public Manager(String name) {
 		registers = Maps.newConcurrentMap();
-		// 定时检测
-		Executors.newSingleThreadScheduledExecutor().scheduleAtFixedRate(() -> {
-			// 检测连接超时
-			// try {
-			// 获得当前时间
-			int curr = DateUtil.getTime();
-			int n = 0;
-			for (Session s : sessions()) {
-				// 超时
-				if (curr - s.getHeart() >= SocketParams.TIMEOUT) {
-					// 关闭Session
-					Logs.info("heart close session={}", s.getId());
-					registers.remove(s.getId());
-					CloseUtil.close(s);
-				}
-				n++;
-			}
-			Logs.debug("testing heart num={}", n);
-		}, 0, SocketParams.TIME, TimeUnit.SECONDS);
+		timeouts = Maps.newConcurrentMap();
+		frame = Frame.get(name);
+		metrics = Metrics.get(name);
+		timer = new HashedWheelTimer(new DefaultThreadFactory("socket-heart", true), SocketParams.TIME, TimeUnit.SECONDS);
 	}
 
 	/**
-	 * 注册到列表
+	 * 注册到列表 并在时间轮上登记超时检测
 	 * @param session Socket Session
 	 */
 	public void register(Session session) {
 		registers.put(session.getId(), session);
+		heart(session, SocketParams.TIMEOUT);
+	}
+
+	/**
+	 * 在时间轮上登记超时检测 到期时心跳已更新则按剩余时间重新登记 每个超时周期最多登记一次
+	 * @param session Session
+	 * @param delay 延迟 秒
+	 */
+	private void heart(Session session, int delay) {
+		Timeout timeout = timer.newTimeout(t -> {
+			// 已经删除 不再检测 删除本次检测
+			if (registers.get(session.getId()) != session) {
+				timeouts.remove(session.getId(), t);
+				return;
+			}
+			// 空闲时间
+			int idle = DateUtil.getTime() - session.getHeart();
+			if (idle >= SocketParams.TIMEOUT) {
+				// 关闭Session
+				Logs.info("heart close session={}", session.getId());
+				remove(session.getId());
+				CloseUtil.close(session);
+			} else
+				// 按剩余时间重新登记
+				heart(session, SocketParams.TIMEOUT - idle);
+		}, delay, TimeUnit.SECONDS);
+		// 保存检测 替换的旧检测取消
+		Timeout old = timeouts.put(session.getId(), timeout);
+		if (old != null && old != timeout)
+			old.cancel();
+		// 登记期间已删除 删除并取消本次检测
+		if (registers.get(session.getId()) != session && timeouts.remove(session.getId(), timeout))
+			timeout.cancel();
 	}
 
 	/**
@@ -69,7 +111,13 @@ public final class Manager {
 	 * @return true 删除成功 false 删除成功
 	 */
 	public Session remove(long id) {
-		return registers.remove(id);
+		// 先删除注册 重新登记的检测可以发现已删除
+		Session session = registers.remove(id);
+		// 取消超时检测 时间轮不再持有Session
+		Timeout t = timeouts.remove(id);
+		if (t != null)
+			t.cancel();
+		return session;
 	}
 
 	/**
@@ -117,13 +165,31 @@ public final class Manager {
 		return registers.size();
 	}
 
+	/**
+	 * 获得统计 按指令的调用次数 收发字节 处理耗时 以及解码失败和抛弃消息数
+	 * @return 统计
+	 */
+	public Metrics metrics() {
+		return metrics;
+	}
+
+	/**
+	 * 停止心跳检测时间轮 取消全部超时检测
+	 */
+	@Override
+	public void close() {
+		timeouts.values().forEach(Timeout::cancel);
+		timeouts.clear();
+		timer.stop();
+	}
+
 	/**
 	 * 广播数据 发送给管理器下所有的session
 	 * @param id 指令
 	 * @param message 消息
 	 */
 	public void broad(short id, Object message) {
-		broad0(sessions(), id, message);
+		broad0(registers.values(), id, message);
 	}
 
 	/**
@@ -137,32 +203,70 @@ public final class Manager {
 	}
 
 	/**
-	 * 广播
+	 * 广播 消息只编码一次
 	 * @param sessions
 	 * @param id
 	 * @param message
 	 */
-	private void broad0(List<Session> sessions, short id, Object message) {
+	private void broad0(Collection<Session> sessions, short id, Object message) {
 		// 列表为空
 		if (EmptyUtil.isEmpty(sessions))
 			return;
 		// 日志
-		Logs.info("manager broad num={};id={};time={}", sessions.size(), id, DateUtil.getTheDate());
-		// 直接广播数据
-		broad(sessions, Sockets.pack(id, message));
+		Logs.debug("manager broad num={};id={}", sessions.size(), id);
+		// 编码到一个共享的ByteBuf 广播数据
+		ByteBuf buf = frame.buffer(id, 0, message);
+		try {
+			broad(sessions, id, buf);
+		} finally {
+			buf.release();
+		}
 	}
 
 	/**
-	 * 广播
+	 * 广播 按EventLoop分组 每组一个任务写入共享数据的引用并刷新 每个实际写入的session记录一次发送字节
 	 * @param sessions
-	 * @param data
+	 * @param id
+	 * @param buf
 	 */
-	private void broad(List<Session> sessions, byte[] data) {
+	private void broad(Collection<Session> sessions, short id, ByteBuf buf) {
 		// 日志
 		long curr = System.currentTimeMillis();
-		Logs.debug("manager pool broad start size={};time=", sessions.size(), DateUtil.getTheDate());
-		// 广播消息
-		sessions.forEach(session -> session.send(data));
-		Logs.debug("manager pool broad end size={};time={}", sessions.size(), (System.currentTimeMillis() - curr));
+		Logs.debug("manager pool broad start size={};time={}", sessions.size(), DateUtil.getTheDate());
+		// 按EventLoop分组
+		Map<EventLoop, List<NettySession>> loops = Maps.newMap();
+		// 非Netty Session使用的字节数组
+		byte[] data = null;
+		// 发送统计
+		Counter counter = metrics.counter(id);
+		int len = buf.readableBytes();
+		for (Session session : sessions)
+			if (session instanceof NettySession) {
+				NettySession s = (NettySession) session;
+				Channel c = s.channel();
+				if (c != null)
+					loops.computeIfAbsent(c.eventLoop(), k -> Lists.newList()).add(s);
+			} else if (session != null) {
+				if (data == null)
+					data = ByteBufUtil.getBytes(buf);
+				session.send(data);
+				counter.send(len);
+			}
+		// 每个EventLoop在自己线程内写入并刷新
+		loops.forEach((loop, list) -> {
+			buf.retain();
+			loop.execute(() -> {
+				try {
+					list.forEach(s -> {
+						s.write(buf.retainedDuplicate());
+						s.flush();
+						counter.send(len);
+					});
+				} finally {
+					buf.release();
+				}
+			});
+		});
+		Logs.debug("manager pool broad end size={};loops={};time={}", sessions.size(), loops.size(), (System.currentTimeMillis() - curr));
 	}
 }
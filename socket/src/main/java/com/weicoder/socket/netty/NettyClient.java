@@ -1,31 +1,61 @@
 package com.weicoder.socket.netty;
 
+import java.nio.channels.ClosedChannelException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelOption;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.epoll.EpollChannelOption;
 
 import com.weicoder.socket.params.SocketParams;
-import com.weicoder.common.util.CloseUtil;
+import com.weicoder.common.log.Logs;
+import com.weicoder.common.zip.ZipEngine;
 import com.weicoder.socket.Client;
 import com.weicoder.socket.Session;
+import com.weicoder.socket.Sockets;
 
 /**
- * netty客户端
+ * netty客户端 保持多个连接 按轮询或最少等待回复选择连接 断线后按间隔翻倍重连
  * @author WD
  */
 public final class NettyClient implements Client {
 	// 保存Netty客户端 Bootstrap
-	private Bootstrap		bootstrap;
-	// 保存Netty服务器 ChannelFuture
-	private ChannelFuture	future;
+	private Bootstrap					bootstrap;
 	// NettyHandler
-	private NettyHandler	handler;
-	// Session
-	private Session			session;
+	private NettyHandler				handler;
 	// 名称
-	private String			name;
+	private String						name;
+	// 连接池
+	private AtomicReferenceArray<Channel>	channels;
+	// 每个连接等待回复的请求数
+	private AtomicIntegerArray			pendings;
+	// 轮询下标
+	private AtomicInteger				index;
+	// 关联ID
+	private AtomicInteger				corr;
+	// 是否按最少等待回复选择
+	private boolean						least;
+	// 是否带关联ID
+	private boolean						correlate;
+	// 是否使用压缩
+	private boolean						zip;
+	// 请求超时时间 毫秒
+	private long						timeout;
+	// 重连初始间隔 毫秒
+	private long						backoff;
+	// 重连最大间隔 毫秒
+	private long						max;
+	// 是否已连接
+	private volatile boolean			connected;
+	// 是否已关闭
+	private volatile boolean			closed;
 
 	/**
 	 * 构造方法
@@ -34,45 +64,183 @@ public final class NettyClient implements Client {
 	public NettyClient(String name) {
 		// 名称
 		this.name = name;
+		// 连接池
+		int n = Math.max(1, SocketParams.getConnections(name));
+		channels = new AtomicReferenceArray<>(n);
+		pendings = new AtomicIntegerArray(n);
+		index = new AtomicInteger();
+		corr = new AtomicInteger();
+		least = "least".equals(SocketParams.getBalance(name));
+		correlate = SocketParams.isCorrelate(name);
+		zip = SocketParams.isZip(name);
+		timeout = SocketParams.getRequest(name);
+		backoff = SocketParams.getBackoff(name);
+		max = SocketParams.getBackoffMax(name);
 		// 实例化ClientBootstrap
 		bootstrap = new Bootstrap();
 		// NettyHandler
 		handler = new NettyHandler(name);
+		// 传输层
+		NettyTransport transport = new NettyTransport(name);
 		// 设置group
-		bootstrap.group(new NioEventLoopGroup(1));
+		bootstrap.group(transport.group(Math.min(n, SocketParams.POOL)));
 		// 设置属性
 		bootstrap.option(ChannelOption.TCP_NODELAY, true);
 		bootstrap.option(ChannelOption.SO_KEEPALIVE, false);
 		bootstrap.option(ChannelOption.SO_LINGER, 0);
 		bootstrap.option(ChannelOption.SO_SNDBUF, 1024 * 32);
 		bootstrap.option(ChannelOption.SO_RCVBUF, 1024 * 8);
+		bootstrap.option(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(SocketParams.getLow(name), SocketParams.getHigh(name)));
+		// epoll 本地属性
+		if (transport.isEpoll() && SocketParams.getFastOpen(name) > 0)
+			bootstrap.option(EpollChannelOption.TCP_FASTOPEN_CONNECT, true);
 		// 设置channel
-		bootstrap.channel(NioSocketChannel.class);
+		bootstrap.channel(transport.client());
 		// 设置初始化 handler
-		bootstrap.handler(handler);
+		bootstrap.handler(new NettyInitializer(name, handler));
 		// 设置监听端口
 		bootstrap.remoteAddress(SocketParams.getHost(name), SocketParams.getPort(name));
 	}
 
 	@Override
-	public void connect() {
-		future = bootstrap.connect().awaitUninterruptibly();
-		session = new NettySession(name, future.channel());
+	public synchronized void connect() {
+		// 已连接 并发调用等待第一次连接完成后直接返回 不重复发起连接
+		if (connected)
+			return;
+		// 同时发起所有连接
+		closed = false;
+		ChannelFuture[] futures = new ChannelFuture[channels.length()];
+		for (int i = 0; i < futures.length; i++)
+			futures[i] = connect(i, backoff);
+		// 等待连接结果 失败的连接会在后台重连
+		Throwable cause = null;
+		int active = 0;
+		for (ChannelFuture f : futures)
+			if (f.awaitUninterruptibly().isSuccess())
+				active++;
+			else
+				cause = f.cause();
+		// 全部失败 记录原因 由后台重连恢复
+		if (active == 0)
+			Logs.error(cause, "socket client connect failed name={};connections={};reconnect in background", name, futures.length);
+		connected = true;
 	}
 
 	@Override
 	public Session session() {
-		// 如果session为空 或 未连接
-		if (session == null)
+		// 未连接
+		if (!connected)
 			// 连接
 			connect();
-		// 返回session
-		return session;
+		// 选择可用连接
+		int i = select();
+		return i < 0 ? null : NettyHandler.session(channels.get(i));
+	}
+
+	@Override
+	public <E> CompletableFuture<E> request(short id, Object message, Class<E> type) {
+		return request(id, message, type, timeout);
 	}
 
 	@Override
-	public void close() throws Exception {
-		CloseUtil.close(session);
-		future.channel().close();
+	public <E> CompletableFuture<E> request(short id, Object message, Class<E> type, long timeout) {
+		// 未开启关联ID
+		if (!correlate)
+			return CompletableFuture.failedFuture(new IllegalStateException("socket correlate disabled name=" + name));
+		// 未连接
+		if (!connected)
+			connect();
+		// 选择可用连接
+		int i = select();
+		Channel channel = i < 0 ? null : channels.get(i);
+		Session session = channel == null ? null : NettyHandler.session(channel);
+		if (session == null)
+			return CompletableFuture.failedFuture(new IllegalStateException("socket no active connection name=" + name));
+		// 生成关联ID 跳过0
+		int c = corr.incrementAndGet();
+		if (c == 0)
+			c = corr.incrementAndGet();
+		final int cid = c;
+		// 登记等待回复 完成或超时后删除
+		CompletableFuture<byte[]> future = new CompletableFuture<>();
+		handler.request(channel, cid, future);
+		pendings.incrementAndGet(i);
+		future.orTimeout(timeout, TimeUnit.MILLISECONDS).whenComplete((r, e) -> {
+			handler.remove(channel, cid);
+			pendings.decrementAndGet(i);
+		});
+		// 发送请求
+		session.send(id, cid, message);
+		// 转换回复
+		return future.thenApply(b -> Sockets.toBean(zip && b.length > 0 ? ZipEngine.extract(b) : b, type));
+	}
+
+	@Override
+	public synchronized void close() throws Exception {
+		closed = true;
+		connected = false;
+		for (int i = 0; i < channels.length(); i++) {
+			Channel c = channels.getAndSet(i, null);
+			if (c != null)
+				c.close();
+		}
+		// 等待回复的请求失败
+		handler.fail(new ClosedChannelException());
+		bootstrap.config().group().shutdownGracefully();
+	}
+
+	/**
+	 * 发起连接 连接关闭后重连
+	 * @param i 连接下标
+	 * @param delay 本次失败后的重连间隔
+	 * @return ChannelFuture
+	 */
+	private ChannelFuture connect(int i, long delay) {
+		return bootstrap.connect().addListener((ChannelFuture f) -> {
+			if (f.isSuccess()) {
+				// 保存连接 关闭后从初始间隔开始重连
+				channels.set(i, f.channel());
+				f.channel().closeFuture().addListener(c -> reconnect(i, backoff));
+			} else
+				reconnect(i, delay);
+		});
+	}
+
+	/**
+	 * 间隔后重连 每次失败间隔翻倍
+	 * @param i 连接下标
+	 * @param delay 间隔
+	 */
+	private void reconnect(int i, long delay) {
+		// 已关闭不再重连
+		if (closed)
+			return;
+		Logs.warn("name={};socket client reconnect index={};delay={}", name, i, delay);
+		bootstrap.config().group().schedule(() -> connect(i, Math.min(delay * 2, max)), delay, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * 选择可用连接
+	 * @return 连接下标 没有可用连接返回-1
+	 */
+	private int select() {
+		int n = channels.length();
+		// 轮询的起始下标
+		int start = least ? 0 : (index.getAndIncrement() & Integer.MAX_VALUE) % n;
+		int best = -1;
+		for (int k = 0; k < n; k++) {
+			int i = (start + k) % n;
+			Channel c = channels.get(i);
+			// 跳过不可用连接
+			if (c == null || !c.isActive() || NettyHandler.session(c) == null)
+				continue;
+			// 轮询直接返回
+			if (!least)
+				return i;
+			// 最少等待回复
+			if (best < 0 || pendings.get(i) < pendings.get(best))
+				best = i;
+		}
+		return best;
 	}
 }
@@ -0,0 +1,59 @@
+package com.weicoder.socket.netty;
+
+import java.util.List;
+
+import com.weicoder.common.log.Logs;
+import com.weicoder.socket.Frame;
+import com.weicoder.socket.process.Metrics;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+
+/**
+ * Netty 帧解码器 按 长度头(消息长度不算本身) short(ID) byte[] 拆包 长度头按配置为short int或varint<br/>
+ * 直接在池化ByteBuf上切片 输出 short(ID) byte[] 的帧 不复制数据 超过最大帧长度关闭连接
+ * @author WD
+ */
+public final class NettyDecoder extends ByteToMessageDecoder {
+	// 名称
+	private String	name;
+	// 帧格式
+	private Frame	frame;
+	// 统计
+	private Metrics	metrics;
+
+	/**
+	 * 构造
+	 * @param name 名称
+	 */
+	public NettyDecoder(String name) {
+		this.name = name;
+		this.frame = Frame.get(name);
+		this.metrics = Metrics.get(name);
+	}
+
+	@Override
+	protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+		// 获得信息长度 不移动读坐标 长度头不足，等待下次信息
+		long l = frame.length(in);
+		if (l < 0)
+			return;
+		int size = (int) (l >>> 32);
+		int length = (int) l;
+		// 长度不符合 发送消息不符合 关掉连接
+		if (!frame.valid(length)) {
+			metrics.decode();
+			Logs.info("name={};error len close channel={};len={}", name, ctx.channel(), length);
+			in.skipBytes(in.readableBytes());
+			ctx.close();
+			return;
+		}
+		// 剩余字节长度不足，等待下次信息
+		if (in.readableBytes() - size < length)
+			return;
+		// 跳过长度 切片出完整帧 引用计数由后续处理器释放
+		in.skipBytes(size);
+		out.add(in.readRetainedSlice(length));
+	}
+}
@@ -1,10 +1,20 @@
 package com.weicoder.socket.netty;
 
+import java.nio.channels.ClosedChannelException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.weicoder.common.lang.Maps;
 import com.weicoder.common.log.Logs;
 import com.weicoder.socket.Session;
+import com.weicoder.socket.params.SocketParams;
 import com.weicoder.socket.process.Process;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
@@ -17,12 +27,18 @@ import io.netty.util.AttributeKey;
  */
 @Sharable
 public final class NettyHandler extends SimpleChannelInboundHandler<ByteBuf> {
+	// 保存Session连接
+	private final static AttributeKey<Session>			SESSION	= AttributeKey.valueOf("session");
+	// 通道上等待回复的关联ID 通道关闭时失败
+	private final static AttributeKey<Set<Integer>>	PENDING	= AttributeKey.valueOf("pending");
 	// 名称
-	private String					name;
+	private String										name;
 	// 消息处理器
-	private Process					process;
-	// 保存Session连接
-	private AttributeKey<Session>	sessionKey;
+	private Process										process;
+	// 是否带关联ID
+	private boolean										correlate;
+	// 等待回复的请求 关联ID对应
+	private Map<Integer, CompletableFuture<byte[]>>	requests;
 
 	/**
 	 * 构造
@@ -31,23 +47,47 @@ public final class NettyHandler extends SimpleChannelInboundHandler<ByteBuf> {
 	public NettyHandler(String name) {
 		this.name = name;
 		this.process = new Process(name);
-		this.sessionKey = AttributeKey.valueOf("session");
+		this.correlate = SocketParams.isCorrelate(name);
+		this.requests = Maps.newConcurrentMap();
 	}
 
 	@Override
 	public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+		// 通道上等待回复的请求直接失败 不等待超时
+		Set<Integer> pending = ctx.channel().attr(PENDING).getAndSet(null);
+		if (pending != null)
+			fail(pending, new ClosedChannelException());
 		Session s = getSesson(ctx.channel());
 		if (s == null)
 			Logs.debug("channel session is null = {}", ctx);
-		else
+		else {
+			// 释放发送队列
+			((NettySession) s).release();
+			// 调用关闭
+			process.closed(s);
 			Logs.debug("channel is inactive = {}", ctx);
+		}
+	}
+
+	@Override
+	public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+		Session s = ctx.channel().attr(SESSION).get();
+		if (s != null) {
+			boolean writable = ctx.channel().isWritable();
+			// 恢复可写 写出发送队列
+			if (writable)
+				((NettySession) s).drain();
+			// 通知处理器
+			process.writable(s, writable);
+		}
+		ctx.fireChannelWritabilityChanged();
 	}
 
 	@Override
 	public void channelActive(ChannelHandlerContext ctx) throws Exception {
 		// 设置session
 		Session s = null;
-		ctx.channel().attr(sessionKey).set(s = new NettySession(name, ctx.channel()));
+		ctx.channel().attr(SESSION).set(s = new NettySession(name, ctx.channel()));
 		// 调用连接
 		process.connected(s);
 		Logs.debug("channel is active = {}", ctx);
@@ -60,12 +100,81 @@ public final class NettyHandler extends SimpleChannelInboundHandler<ByteBuf> {
 
 	@Override
 	protected void channelRead0(ChannelHandlerContext ctx, ByteBuf msg) throws Exception {
-		// 声明字节流
-		byte[] data = new byte[msg.readableBytes()];
-		// 读取字节流
-		msg.readBytes(data);
-		// 交给数据处理器
-		process.process(getSesson(ctx.channel()), data);
+		// 有等待回复的请求 按关联ID完成
+		if (correlate && !requests.isEmpty() && msg.readableBytes() >= 6) {
+			int index = msg.readerIndex() + 2;
+			int corr = SocketParams.HIGH ? msg.getInt(index) : msg.getIntLE(index);
+			CompletableFuture<byte[]> f = corr == 0 ? null : requests.remove(corr);
+			if (f != null) {
+				f.complete(ByteBufUtil.getBytes(msg, index + 4, msg.readableBytes() - 6));
+				return;
+			}
+		}
+		// 已由NettyDecoder拆成完整帧 直接交给数据处理器 处理后自动释放
+		process.process(getSesson(ctx.channel()), msg);
+	}
+
+	/**
+	 * 登记等待回复的请求 通道已关闭时直接失败
+	 * @param channel 发送请求的通道
+	 * @param corr 关联ID
+	 * @param future 回复
+	 */
+	void request(Channel channel, int corr, CompletableFuture<byte[]> future) {
+		requests.put(corr, future);
+		Set<Integer> pending = channel.attr(PENDING).get();
+		if (pending == null) {
+			pending = ConcurrentHashMap.newKeySet();
+			Set<Integer> old = channel.attr(PENDING).setIfAbsent(pending);
+			if (old != null)
+				pending = old;
+		}
+		pending.add(corr);
+		// 登记期间通道已关闭
+		if (!channel.isActive() && requests.remove(corr, future))
+			future.completeExceptionally(new ClosedChannelException());
+	}
+
+	/**
+	 * 删除等待回复的请求
+	 * @param channel 发送请求的通道
+	 * @param corr 关联ID
+	 */
+	void remove(Channel channel, int corr) {
+		requests.remove(corr);
+		Set<Integer> pending = channel.attr(PENDING).get();
+		if (pending != null)
+			pending.remove(corr);
+	}
+
+	/**
+	 * 全部等待回复的请求失败 客户端关闭时调用
+	 * @param cause 原因
+	 */
+	void fail(Throwable cause) {
+		fail(requests.keySet(), cause);
+	}
+
+	/**
+	 * 等待回复的请求失败
+	 * @param corrs 关联ID
+	 * @param cause 原因
+	 */
+	private void fail(Collection<Integer> corrs, Throwable cause) {
+		for (Integer corr : corrs) {
+			CompletableFuture<byte[]> f = requests.remove(corr);
+			if (f != null)
+				f.completeExceptionally(cause);
+		}
+	}
+
+	/**
+	 * 获得通道上的Session
+	 * @param channel netty channel
+	 * @return Session 未激活时为null
+	 */
+	static Session session(Channel channel) {
+		return channel.attr(SESSION).get();
 	}
 
 	/**
@@ -75,7 +184,7 @@ public final class NettyHandler extends SimpleChannelInboundHandler<ByteBuf> {
 	 */
 	private Session getSesson(Channel channel) {
 		// 获得Session
-		Session s = channel.attr(sessionKey).get();
+		Session s = channel.attr(SESSION).get();
 		// Session为空直接断开连接
 		if (s == null) {
 			Logs.warn("channel to session is null channel", channel);
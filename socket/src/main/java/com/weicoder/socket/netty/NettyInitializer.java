@@ -0,0 +1,38 @@
+package com.weicoder.socket.netty;
+
+import com.weicoder.socket.Frame;
+import com.weicoder.socket.params.SocketParams;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.handler.stream.ChunkedWriteHandler;
+
+/**
+ * Netty 通道初始化 每个通道添加独立的帧解码器与共享的处理器 大帧格式时添加分块写入处理器
+ * @author WD
+ */
+public final class NettyInitializer extends ChannelInitializer<Channel> {
+	// 名称
+	private String			name;
+	// NettyHandler
+	private NettyHandler	handler;
+
+	/**
+	 * 构造
+	 * @param name 名称
+	 * @param handler 共享的处理器
+	 */
+	public NettyInitializer(String name, NettyHandler handler) {
+		this.name = name;
+		this.handler = handler;
+	}
+
+	@Override
+	protected void initChannel(Channel ch) throws Exception {
+		ch.pipeline().addLast(new NettyDecoder(name));
+		// 大帧格式支持流式发送
+		if (!Frame.SHORT.equals(SocketParams.getFrame(name)))
+			ch.pipeline().addLast(new ChunkedWriteHandler());
+		ch.pipeline().addLast(handler);
+	}
+}
@@ -2,8 +2,9 @@ package com.weicoder.socket.netty;
 
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.ChannelOption;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollMode;
 
 import com.weicoder.socket.params.SocketParams;
 import com.weicoder.socket.Server;
@@ -17,6 +18,8 @@ public final class NettyServer implements Server {
 	private ServerBootstrap	bootstrap;
 	// NettyHandler
 	private NettyHandler	handler;
+	// 监听绑定次数 epoll下使用SO_REUSEPORT多次绑定
+	private int				binds;
 
 	/**
 	 * 构造函数
@@ -27,8 +30,13 @@ public final class NettyServer implements Server {
 		bootstrap = new ServerBootstrap();
 		// NettyHandler
 		handler = new NettyHandler(name);
+		// 传输层
+		NettyTransport transport = new NettyTransport(name);
+		// 接收连接线程数
+		int acceptor = SocketParams.getAcceptor(name);
+		binds = transport.isEpoll() ? acceptor : 1;
 		// 设置group
-		bootstrap.group(new NioEventLoopGroup(1), new NioEventLoopGroup(SocketParams.POOL));
+		bootstrap.group(transport.group(binds), transport.group(SocketParams.POOL));
 		// 设置属性
 		bootstrap.option(ChannelOption.SO_REUSEADDR, true);
 		// bootstrap.option(ChannelOption.TCP_NODELAY, true);
@@ -45,17 +53,28 @@ public final class NettyServer implements Server {
 		bootstrap.childOption(ChannelOption.SO_BACKLOG, Short.MAX_VALUE * 1);
 		bootstrap.childOption(ChannelOption.SO_SNDBUF, 1024 * 32);
 		bootstrap.childOption(ChannelOption.SO_RCVBUF, 1024 * 8);
+		bootstrap.childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(SocketParams.getLow(name), SocketParams.getHigh(name)));
+
+		// epoll 本地属性
+		if (transport.isEpoll()) {
+			bootstrap.option(EpollChannelOption.SO_REUSEPORT, binds > 1);
+			if (SocketParams.getFastOpen(name) > 0)
+				bootstrap.option(EpollChannelOption.TCP_FASTOPEN, SocketParams.getFastOpen(name));
+			bootstrap.childOption(EpollChannelOption.EPOLL_MODE, EpollMode.EDGE_TRIGGERED);
+		}
 
 		// 设置channel
-		bootstrap.channel(NioServerSocketChannel.class);
+		bootstrap.channel(transport.server());
 		// 设置初始化 handler
-		bootstrap.childHandler(handler);
+		bootstrap.childHandler(new NettyInitializer(name, handler));
 		// 设置监听端口
 		bootstrap.localAddress(SocketParams.getPort(name));
 	}
 
 	@Override
 	public void bind() {
-		bootstrap.bind();
+		// SO_REUSEPORT下每次绑定一个监听 由内核分配连接
+		for (int i = 0; i < binds; i++)
+			bootstrap.bind();
 	}
 }
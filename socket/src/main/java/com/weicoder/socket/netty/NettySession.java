@@ -1,20 +1,48 @@
 package com.weicoder.socket.netty;
 
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
+import io.netty.channel.EventLoop;
+import io.netty.handler.stream.ChunkedWriteHandler;
 
+import com.weicoder.common.util.CloseUtil;
 import com.weicoder.common.lang.Bytes;
+import com.weicoder.common.log.Logs;
+import com.weicoder.socket.process.Metrics;
 import com.weicoder.common.util.IpUtil;
+import com.weicoder.socket.Frame;
 import com.weicoder.socket.Session;
 import com.weicoder.socket.base.BaseSession;
+import com.weicoder.socket.params.SocketParams;
 
 /**
- * netty Session实现
+ * netty Session实现<br/>
+ * 通道不可写时消息进入有界发送队列 通道恢复可写后按顺序写出 队列满时按配置策略处理
  * @author WD
  */
 public final class NettySession extends BaseSession implements Session {
+	/** 队列满时丢弃最早的消息 */
+	public final static String	DROP_OLDEST	= "drop-oldest";
+	/** 队列满时丢弃最新的消息 */
+	public final static String	DROP_NEWEST	= "drop-newest";
+	/** 队列满时替换队列中相同指令的消息 没有相同指令时丢弃最新的消息 */
+	public final static String	COALESCE	= "coalesce";
+	/** 队列满时断开连接 */
+	public final static String	DISCONNECT	= "disconnect";
 	// 通道
-	private Channel channel;
+	private Channel				channel;
+	// 发送队列 只在通道的EventLoop中访问
+	private Queue<ByteBuf>		queue;
+	// 发送队列上限 配置小于等于0时不限制
+	private int					limit;
+	// 队列满时的策略
+	private String				overflow;
 
 	/**
 	 * 构造
@@ -26,23 +54,188 @@ public final class NettySession extends BaseSession implements Session {
 		address(channel.remoteAddress());
 		this.id = Bytes.toLong(Bytes.toBytes(IpUtil.encode(ip), port));
 		this.channel = channel;
+		this.queue = new ArrayDeque<>();
+		int send = SocketParams.getSend(name);
+		this.limit = send > 0 ? send : Integer.MAX_VALUE;
+		this.overflow = SocketParams.getOverflow(name);
 	}
 
 	@Override
 	public void write(byte[] data) {
-		channel.write(PooledByteBufAllocator.DEFAULT.buffer().writeBytes(data));
+		write(PooledByteBufAllocator.DEFAULT.buffer(data.length).writeBytes(data));
+	}
+
+	/**
+	 * 写入缓存 必须调用flush才能确保数据写入 已关闭时直接释放
+	 * @param buf 已包装好的数据 写入后由Netty释放
+	 */
+	public void write(ByteBuf buf) {
+		Channel c = channel;
+		if (c == null) {
+			buf.release();
+			return;
+		}
+		// 发送队列只在EventLoop中访问
+		EventLoop loop = c.eventLoop();
+		if (loop.inEventLoop())
+			write(c, buf);
+		else
+			loop.execute(() -> write(c, buf));
+	}
+
+	@Override
+	public void stream(short id, InputStream in, int length) {
+		Channel c = channel;
+		// 检查是否可以流式发送
+		if (c == null || c.pipeline().get(ChunkedWriteHandler.class) == null || SocketParams.isZip(name)) {
+			CloseUtil.close(in);
+			throw new IllegalStateException("socket stream need frame int or varint and zip off name=" + name);
+		}
+		// 写帧头前检查长度 超过最大帧长度不发送
+		if (length < 0 || length > frame.max() - frame.head()) {
+			CloseUtil.close(in);
+			throw new IllegalArgumentException("socket stream too large len=" + length + ";max=" + frame.max() + " name=" + name);
+		}
+		ByteBuf header = frame.header(id, 0, length);
+		metrics.counter(id).send(header.readableBytes() + length);
+		c.eventLoop().execute(() -> {
+			// 先写出发送队列中的消息 保证顺序 之后由分块处理器按可写状态发送
+			for (ByteBuf b; (b = queue.poll()) != null;)
+				c.write(b, c.voidPromise());
+			c.write(header, c.voidPromise());
+			// 只发送length字节 流不足时帧已损坏 关闭连接
+			c.writeAndFlush(new NettyStream(in, length)).addListener(f -> {
+				if (!f.isSuccess()) {
+					Logs.error(f.cause(), "name={};socket={};stream failed id={};length={}", name, this.id, id, length);
+					c.close();
+				}
+			});
+		});
+	}
+
+	@Override
+	public boolean isWritable() {
+		Channel c = channel;
+		return c != null && c.isWritable();
+	}
+
+	/**
+	 * 获得发送队列中等待的消息数
+	 * @return 消息数
+	 */
+	public int pending() {
+		return queue.size();
+	}
+
+	/**
+	 * 通道恢复可写 按顺序写出发送队列中的消息 在EventLoop中调用
+	 */
+	void drain() {
+		Channel c = channel;
+		if (c == null)
+			return;
+		// 写到不可写为止
+		while (c.isWritable() && !queue.isEmpty())
+			c.write(queue.poll(), c.voidPromise());
+		c.flush();
+	}
+
+	/**
+	 * 释放发送队列中的消息 在EventLoop中调用
+	 */
+	void release() {
+		for (ByteBuf b; (b = queue.poll()) != null;)
+			b.release();
+	}
+
+	/**
+	 * 获得通道
+	 * @return 通道 关闭后为null
+	 */
+	public Channel channel() {
+		return channel;
 	}
 
 	@Override
 	public void close() {
-		channel.flush();
-		channel.close();
-		channel.disconnect();
+		Channel c = channel;
+		if (c == null)
+			return;
 		channel = null;
+		c.flush();
+		c.close();
+		c.disconnect();
 	}
 
 	@Override
 	public void flush() {
-		channel.flush();
+		Channel c = channel;
+		if (c != null)
+			c.flush();
+	}
+
+	/**
+	 * 在EventLoop中写入 可写并且没有积压时直接写入通道 否则进入发送队列
+	 * @param c 通道
+	 * @param buf 数据
+	 */
+	private void write(Channel c, ByteBuf buf) {
+		if (queue.isEmpty() && c.isWritable())
+			c.write(buf, c.voidPromise());
+		else if (queue.size() < limit)
+			queue.offer(buf);
+		else
+			overflow(c, buf);
+	}
+
+	/**
+	 * 发送队列已满 按策略处理
+	 * @param c 通道
+	 * @param buf 数据
+	 */
+	private void overflow(Channel c, ByteBuf buf) {
+		Metrics.get(name).overflow();
+		Logs.warn("name={};socket={};send queue full overflow={};queue={}", name, id, overflow, queue.size());
+		switch (overflow) {
+			case DROP_OLDEST:
+				// 丢弃最早的消息
+				ByteBuf old = queue.poll();
+				if (old != null)
+					old.release();
+				queue.offer(buf);
+				break;
+			case COALESCE:
+				// 替换相同指令的消息
+				short head = head(buf);
+				for (Iterator<ByteBuf> it = queue.iterator(); it.hasNext();) {
+					ByteBuf b = it.next();
+					if (head(b) == head) {
+						it.remove();
+						b.release();
+						queue.offer(buf);
+						return;
+					}
+				}
+				buf.release();
+				break;
+			case DISCONNECT:
+				// 断开连接
+				buf.release();
+				release();
+				close();
+				break;
+			default:
+				// 丢弃最新的消息
+				buf.release();
+		}
+	}
+
+	/**
+	 * 读取包装数据的指令 不移动读坐标
+	 * @param buf 数据
+	 * @return 指令
+	 */
+	private short head(ByteBuf buf) {
+		return frame.id(buf);
 	}
 }
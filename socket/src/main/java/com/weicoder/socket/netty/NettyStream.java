@@ -0,0 +1,82 @@
+package com.weicoder.socket.netty;
+
+import java.io.EOFException;
+import java.io.InputStream;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.stream.ChunkedInput;
+
+/**
+ * 定长分块输入 代替ChunkedStream 只读取帧头声明的长度 流提前结束时抛出异常 保证后续消息的帧边界
+ * @author WD
+ */
+final class NettyStream implements ChunkedInput<ByteBuf> {
+	// 每块大小 与ChunkedStream默认一致
+	private final static int	CHUNK	= 8192;
+	// 输入流
+	private final InputStream	in;
+	// 数据长度
+	private final long			length;
+	// 已读取长度
+	private long				offset;
+
+	/**
+	 * 构造
+	 * @param in 输入流
+	 * @param length 数据长度
+	 */
+	NettyStream(InputStream in, int length) {
+		this.in = in;
+		this.length = length;
+	}
+
+	@Override
+	public boolean isEndOfInput() {
+		return offset >= length;
+	}
+
+	@Override
+	public void close() throws Exception {
+		in.close();
+	}
+
+	@Deprecated
+	@Override
+	public ByteBuf readChunk(ChannelHandlerContext ctx) throws Exception {
+		return readChunk(ctx.alloc());
+	}
+
+	@Override
+	public ByteBuf readChunk(ByteBufAllocator allocator) throws Exception {
+		if (isEndOfInput())
+			return null;
+		// 不超过剩余长度
+		int size = (int) Math.min(CHUNK, length - offset);
+		ByteBuf buf = allocator.buffer(size);
+		boolean release = true;
+		try {
+			int n = buf.writeBytes(in, size);
+			// 流长度不足 帧已无法完整
+			if (n < 0)
+				throw new EOFException("socket stream ended early offset=" + offset + ";length=" + length);
+			offset += n;
+			release = false;
+			return buf;
+		} finally {
+			if (release)
+				buf.release();
+		}
+	}
+
+	@Override
+	public long length() {
+		return length;
+	}
+
+	@Override
+	public long progress() {
+		return offset;
+	}
+}
@@ -0,0 +1,157 @@
+package com.weicoder.socket.netty;
+
+import com.weicoder.common.log.Logs;
+import com.weicoder.socket.params.SocketParams;
+
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+
+/**
+ * Netty 传输层 按配置选择nio epoll io_uring 本地传输不可用时依次回退到epoll与nio<br/>
+ * io_uring需要自行引入netty-incubator-transport-native-io_uring
+ * @author WD
+ */
+final class NettyTransport {
+	/** nio 传输 */
+	final static String		NIO			= "nio";
+	/** epoll 传输 */
+	final static String		EPOLL		= "epoll";
+	/** io_uring 传输 */
+	final static String		IO_URING	= "io_uring";
+	// io_uring 孵化包名
+	private final static String	URING		= "io.netty.incubator.channel.uring.";
+	// 实际使用的传输
+	private String				type;
+
+	/**
+	 * 构造
+	 * @param name 名称
+	 */
+	NettyTransport(String name) {
+		// 配置的传输
+		String t = SocketParams.getTransport(name);
+		// 选择可用的传输
+		if (IO_URING.equals(t) && uring())
+			type = IO_URING;
+		else if ((IO_URING.equals(t) || EPOLL.equals(t)) && Epoll.isAvailable())
+			type = EPOLL;
+		else
+			type = NIO;
+		// 回退日志
+		if (type.equals(t))
+			Logs.info("name={};socket transport={}", name, type);
+		else
+			Logs.warn("name={};socket transport={} unavailable use={}", name, t, type);
+	}
+
+	/**
+	 * 是否使用epoll
+	 * @return 是否
+	 */
+	boolean isEpoll() {
+		return EPOLL.equals(type);
+	}
+
+	/**
+	 * 获得实际使用的传输
+	 * @return 传输
+	 */
+	String type() {
+		return type;
+	}
+
+	/**
+	 * 生成EventLoopGroup
+	 * @param threads 线程数
+	 * @return EventLoopGroup
+	 */
+	EventLoopGroup group(int threads) {
+		switch (type) {
+			case EPOLL:
+				return new EpollEventLoopGroup(threads);
+			case IO_URING:
+				return (EventLoopGroup) uring("IOUringEventLoopGroup", threads);
+			default:
+				return new NioEventLoopGroup(threads);
+		}
+	}
+
+	/**
+	 * 获得服务端通道类型
+	 * @return 服务端通道类型
+	 */
+	@SuppressWarnings("unchecked")
+	Class<? extends ServerChannel> server() {
+		switch (type) {
+			case EPOLL:
+				return EpollServerSocketChannel.class;
+			case IO_URING:
+				return (Class<? extends ServerChannel>) uring("IOUringServerSocketChannel");
+			default:
+				return NioServerSocketChannel.class;
+		}
+	}
+
+	/**
+	 * 获得客户端通道类型
+	 * @return 客户端通道类型
+	 */
+	@SuppressWarnings("unchecked")
+	Class<? extends Channel> client() {
+		switch (type) {
+			case EPOLL:
+				return EpollSocketChannel.class;
+			case IO_URING:
+				return (Class<? extends Channel>) uring("IOUringSocketChannel");
+			default:
+				return NioSocketChannel.class;
+		}
+	}
+
+	/**
+	 * io_uring是否可用
+	 * @return 是否
+	 */
+	private static boolean uring() {
+		try {
+			return (Boolean) uring("IOUring").getMethod("isAvailable").invoke(null);
+		} catch (Throwable e) {
+			return false;
+		}
+	}
+
+	/**
+	 * 获得io_uring类
+	 * @param name 类名
+	 * @return 类
+	 */
+	private static Class<?> uring(String name) {
+		try {
+			return Class.forName(URING + name);
+		} catch (ClassNotFoundException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * 实例化io_uring类
+	 * @param name 类名
+	 * @param threads 线程数
+	 * @return 实例
+	 */
+	private static Object uring(String name, int threads) {
+		try {
+			return uring(name).getConstructor(int.class).newInstance(threads);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -4,6 +4,7 @@ import com.weicoder.common.config.Config;
 import com.weicoder.common.config.ConfigFactory;
 import com.weicoder.common.constants.StringConstants;
 import com.weicoder.common.constants.SystemConstants;
+import com.weicoder.common.params.CommonParams;
 import com.weicoder.common.params.Params;
 
 /**
@@ -23,6 +24,8 @@ public final class SocketParams {
 	public final static int		POOL	= CONFIG.getInt("pool", Params.getInt(Params.getKey(PREFIX, StringConstants.EMPTY, "pool"), SystemConstants.CPU_NUM * 2));
 	/** 分组广播数 */
 	public final static Boolean	ZIP		= CONFIG.getBoolean("zip", Params.getBoolean(Params.getKey(PREFIX, StringConstants.EMPTY, "zip"), false));
+	/** 协议头字节序 与Bytes算法一致 true高位在前 */
+	public final static boolean	HIGH	= "high".equals(CommonParams.BYTES);
 
 	/**
 	 * 获得Socket连接服务器
@@ -43,12 +46,165 @@ public final class SocketParams {
 	}
 
 	/**
-	 * 获得Socket 数据是否压缩 默认false
+	 * 获得Socket 数据是否压缩 默认使用全局zip配置
 	 * @param name 名称
 	 * @return 是否
 	 */
 	public static boolean isZip(String name) {
-		return CONFIG.getBoolean(getKey(name, "zip"), Params.getBoolean(Params.getKey(PREFIX, name, "zip"), false));
+		return CONFIG.getBoolean(getKey(name, "zip"), Params.getBoolean(Params.getKey(PREFIX, name, "zip"), ZIP));
+	}
+
+	/**
+	 * 获得Handler执行模式 loop在Netty线程执行 pool在线程池executor.socket.name执行 默认loop
+	 * @param name 名称
+	 * @return 执行模式
+	 */
+	public static String getMode(String name) {
+		return CONFIG.getString(getKey(name, "mode"), Params.getString(Params.getKey(PREFIX, name, "mode"), "loop"));
+	}
+
+	/**
+	 * 获得线程池模式下每个Session等待处理的消息上限 超过丢弃 小于等于0不限制 默认1024
+	 * @param name 名称
+	 * @return 队列上限
+	 */
+	public static int getQueue(String name) {
+		return CONFIG.getInt(getKey(name, "queue"), Params.getInt(Params.getKey(PREFIX, name, "queue"), 1024));
+	}
+
+	/**
+	 * 获得Socket传输层 nio epoll io_uring 本地传输不可用时回退到nio 默认nio
+	 * @param name 名称
+	 * @return 传输层
+	 */
+	public static String getTransport(String name) {
+		return CONFIG.getString(getKey(name, "transport"), Params.getString(Params.getKey(PREFIX, name, "transport"), "nio"));
+	}
+
+	/**
+	 * 获得服务端接收连接线程数 epoll下使用SO_REUSEPORT绑定相同数量的监听 默认1
+	 * @param name 名称
+	 * @return 线程数
+	 */
+	public static int getAcceptor(String name) {
+		return CONFIG.getInt(getKey(name, "acceptor"), Params.getInt(Params.getKey(PREFIX, name, "acceptor"), 1));
+	}
+
+	/**
+	 * 获得epoll下TCP_FASTOPEN队列长度 服务端为队列长度 客户端大于0开启 默认0不开启
+	 * @param name 名称
+	 * @return 队列长度
+	 */
+	public static int getFastOpen(String name) {
+		return CONFIG.getInt(getKey(name, "fastopen"), Params.getInt(Params.getKey(PREFIX, name, "fastopen"), 0));
+	}
+
+	/**
+	 * 获得通道写缓冲高水位 超过后通道不可写 单位字节 默认64K
+	 * @param name 名称
+	 * @return 高水位
+	 */
+	public static int getHigh(String name) {
+		return CONFIG.getInt(getKey(name, "high"), Params.getInt(Params.getKey(PREFIX, name, "high"), 64 * 1024));
+	}
+
+	/**
+	 * 获得通道写缓冲低水位 低于后通道恢复可写 单位字节 默认32K
+	 * @param name 名称
+	 * @return 低水位
+	 */
+	public static int getLow(String name) {
+		return CONFIG.getInt(getKey(name, "low"), Params.getInt(Params.getKey(PREFIX, name, "low"), 32 * 1024));
+	}
+
+	/**
+	 * 获得通道不可写时每个Session发送队列的消息上限 小于等于0不限制 默认1024
+	 * @param name 名称
+	 * @return 队列上限
+	 */
+	public static int getSend(String name) {
+		return CONFIG.getInt(getKey(name, "send"), Params.getInt(Params.getKey(PREFIX, name, "send"), 1024));
+	}
+
+	/**
+	 * 获得发送队列满时的策略 drop-oldest drop-newest coalesce disconnect 默认drop-newest
+	 * @param name 名称
+	 * @return 策略
+	 */
+	public static String getOverflow(String name) {
+		return CONFIG.getString(getKey(name, "overflow"), Params.getString(Params.getKey(PREFIX, name, "overflow"), "drop-newest"));
+	}
+
+	/**
+	 * 是否在指令后带int关联ID 用于请求回复 服务端与客户端需要一致 默认false
+	 * @param name 名称
+	 * @return 是否
+	 */
+	public static boolean isCorrelate(String name) {
+		return CONFIG.getBoolean(getKey(name, "correlate"), Params.getBoolean(Params.getKey(PREFIX, name, "correlate"), false));
+	}
+
+	/**
+	 * 获得客户端连接数 默认1
+	 * @param name 名称
+	 * @return 连接数
+	 */
+	public static int getConnections(String name) {
+		return CONFIG.getInt(getKey(name, "connections"), Params.getInt(Params.getKey(PREFIX, name, "connections"), 1));
+	}
+
+	/**
+	 * 获得客户端连接选择方式 round轮询 least最少等待回复 默认round
+	 * @param name 名称
+	 * @return 选择方式
+	 */
+	public static String getBalance(String name) {
+		return CONFIG.getString(getKey(name, "balance"), Params.getString(Params.getKey(PREFIX, name, "balance"), "round"));
+	}
+
+	/**
+	 * 获得客户端请求等待回复的超时时间 单位毫秒 默认3000
+	 * @param name 名称
+	 * @return 超时时间
+	 */
+	public static long getRequest(String name) {
+		return CONFIG.getLong(getKey(name, "request"), Params.getLong(Params.getKey(PREFIX, name, "request"), 3000));
+	}
+
+	/**
+	 * 获得客户端断线重连的初始间隔 每次失败翻倍 单位毫秒 默认100
+	 * @param name 名称
+	 * @return 间隔
+	 */
+	public static long getBackoff(String name) {
+		return CONFIG.getLong(getKey(name, "backoff"), Params.getLong(Params.getKey(PREFIX, name, "backoff"), 100));
+	}
+
+	/**
+	 * 获得客户端断线重连的最大间隔 单位毫秒 默认30000
+	 * @param name 名称
+	 * @return 间隔
+	 */
+	public static long getBackoffMax(String name) {
+		return CONFIG.getLong(getKey(name, "backoff.max"), Params.getLong(Params.getKey(PREFIX, name, "backoff.max"), 30000));
+	}
+
+	/**
+	 * 获得帧长度头类型 short为2字节 int为4字节 varint为变长 默认short 服务端与客户端需要一致
+	 * @param name 名称
+	 * @return 长度头类型
+	 */
+	public static String getFrame(String name) {
+		return CONFIG.getString(getKey(name, "frame"), Params.getString(Params.getKey(PREFIX, name, "frame"), "short"));
+	}
+
+	/**
+	 * 获得最大帧长度 超过时关闭连接 short类型最大为Short.MAX_VALUE 默认16M
+	 * @param name 名称
+	 * @return 最大帧长度
+	 */
+	public static int getMaxFrame(String name) {
+		return CONFIG.getInt(getKey(name, "frame.max"), Params.getInt(Params.getKey(PREFIX, name, "frame.max"), 16 * 1024 * 1024));
 	}
 
 	/**
@@ -0,0 +1,123 @@
+package com.weicoder.socket.process;
+
+import java.lang.reflect.Array;
+import java.nio.charset.Charset;
+
+import com.weicoder.common.binary.Binary;
+import com.weicoder.common.binary.Buffer;
+import com.weicoder.common.binary.ByteArray;
+import com.weicoder.common.lang.Bytes;
+import com.weicoder.common.params.CommonParams;
+import com.weicoder.common.util.ClassUtil;
+import com.weicoder.protobuf.Protobuf;
+import com.weicoder.protobuf.ProtobufEngine;
+import com.weicoder.socket.Session;
+import com.weicoder.socket.Sockets;
+import com.weicoder.socket.manager.Manager;
+import com.weicoder.socket.params.SocketParams;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+
+/**
+ * Handler 参数绑定器 启动时按参数类型解析一次 处理消息时直接取值
+ * @author WD
+ */
+@FunctionalInterface
+interface Binder {
+	// 字符串编码
+	Charset CHARSET = Charset.forName(CommonParams.ENCODING);
+
+	/**
+	 * 绑定参数值
+	 * @param session Session
+	 * @param data 消息数据
+	 * @param copy 本条消息复制出的字节数组 数组类型参数共用 长度为1 不需要时为null
+	 * @return 参数值
+	 */
+	Object bind(Session session, ByteBuf data, byte[][] copy);
+
+	/**
+	 * 是否需要把消息数据复制成字节数组
+	 * @param type 参数类型
+	 * @return 是否
+	 */
+	static boolean copy(Class<?> type) {
+		return Binary.class.isAssignableFrom(type) || ByteArray.class.isAssignableFrom(type) || type.equals(Buffer.class) || type.equals(byte[].class);
+	}
+
+	/**
+	 * 根据参数类型解析绑定器
+	 * @param type 参数类型
+	 * @return 绑定器
+	 */
+	static Binder of(Class<?> type) {
+		// 不读取消息数据的类型
+		if (Session.class.isAssignableFrom(type))
+			return (s, d, c) -> s;
+		if (Manager.class.equals(type))
+			return (s, d, c) -> Sockets.manager();
+		// 读取消息数据的类型 消息为空时使用类型默认值
+		Binder b = data(type);
+		Object def = type.isPrimitive() ? Array.get(Array.newInstance(type, 1), 0) : null;
+		return (s, d, c) -> d.isReadable() ? b.bind(s, d, c) : def;
+	}
+
+	/**
+	 * 获得本条消息的字节数组 每条消息只复制一次
+	 * @param d 消息数据
+	 * @param copy 复制出的字节数组
+	 * @return 字节数组
+	 */
+	private static byte[] bytes(ByteBuf d, byte[][] copy) {
+		if (copy[0] == null)
+			copy[0] = ByteBufUtil.getBytes(d);
+		return copy[0];
+	}
+
+	/**
+	 * 解析读取消息数据的绑定器 数字直接从ByteBuf读取 不复制
+	 * @param type 参数类型
+	 * @return 绑定器
+	 */
+	private static Binder data(Class<?> type) {
+		if (type.isAnnotationPresent(Protobuf.class))
+			// 直接读取ByteBuf 不复制
+			return (s, d, c) -> ProtobufEngine.toBean(d.nioBuffer(), type);
+		if (type.equals(String.class))
+			// 字符串
+			return (s, d, c) -> d.toString(d.readerIndex(), d.readableBytes(), CHARSET);
+		if (Binary.class.isAssignableFrom(type))
+			// 字节流
+			return (s, d, c) -> Bytes.toBinary(type, bytes(d, c));
+		if (ByteArray.class.isAssignableFrom(type))
+			// 字节流
+			return (s, d, c) -> ((ByteArray) ClassUtil.newInstance(type)).array(bytes(d, c));
+		if (type.equals(Buffer.class))
+			// 字节流
+			return (s, d, c) -> new Buffer(bytes(d, c));
+		if (type.equals(int.class) || type.equals(Integer.class))
+			// 整型
+			return (s, d, c) -> SocketParams.HIGH ? d.getInt(d.readerIndex()) : d.getIntLE(d.readerIndex());
+		if (type.equals(long.class) || type.equals(Long.class))
+			// 长整型
+			return (s, d, c) -> SocketParams.HIGH ? d.getLong(d.readerIndex()) : d.getLongLE(d.readerIndex());
+		if (type.equals(boolean.class) || type.equals(Boolean.class))
+			// 布尔
+			return (s, d, c) -> d.getByte(d.readerIndex()) != 0;
+		if (type.equals(float.class) || type.equals(Float.class))
+			// float型
+			return (s, d, c) -> SocketParams.HIGH ? d.getFloat(d.readerIndex()) : d.getFloatLE(d.readerIndex());
+		if (type.equals(double.class) || type.equals(Double.class))
+			// Double型
+			return (s, d, c) -> SocketParams.HIGH ? d.getDouble(d.readerIndex()) : d.getDoubleLE(d.readerIndex());
+		if (type.equals(byte.class) || type.equals(Byte.class))
+			// 字节
+			return (s, d, c) -> d.getByte(d.readerIndex());
+		if (type.equals(byte[].class))
+			// 字节流
+			return (s, d, c) -> bytes(d, c);
+		// 不支持的类型
+		return (s, d, c) -> null;
+	}
+}
@@ -0,0 +1,140 @@
+package com.weicoder.socket.process;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个指令的统计 调用次数 收发字节 错误数 处理耗时分布
+ * @author WD
+ */
+public final class Counter {
+	// 指令
+	private short		id;
+	// 调用次数
+	private LongAdder	count	= new LongAdder();
+	// 接收字节
+	private LongAdder	in		= new LongAdder();
+	// 发送字节
+	private LongAdder	out		= new LongAdder();
+	// 处理异常数
+	private LongAdder	errors	= new LongAdder();
+	// 处理耗时 纳秒
+	private Histogram	times	= new Histogram();
+
+	/**
+	 * 构造
+	 * @param id 指令
+	 */
+	Counter(short id) {
+		this.id = id;
+	}
+
+	/**
+	 * 记录一次接收
+	 * @param len 字节数
+	 */
+	void receive(int len) {
+		count.increment();
+		in.add(len);
+	}
+
+	/**
+	 * 记录一次处理耗时
+	 * @param nanos 纳秒
+	 */
+	void time(long nanos) {
+		times.record(nanos);
+	}
+
+	/**
+	 * 记录一次处理异常
+	 */
+	void error() {
+		errors.increment();
+	}
+
+	/**
+	 * 记录发送字节
+	 * @param len 字节数
+	 */
+	public void send(long len) {
+		out.add(len);
+	}
+
+	/**
+	 * 指令
+	 * @return 指令
+	 */
+	public short id() {
+		return id;
+	}
+
+	/**
+	 * 调用次数
+	 * @return 次数
+	 */
+	public long count() {
+		return count.sum();
+	}
+
+	/**
+	 * 接收字节数
+	 * @return 字节数
+	 */
+	public long in() {
+		return in.sum();
+	}
+
+	/**
+	 * 发送字节数
+	 * @return 字节数
+	 */
+	public long out() {
+		return out.sum();
+	}
+
+	/**
+	 * 处理异常数
+	 * @return 异常数
+	 */
+	public long errors() {
+		return errors.sum();
+	}
+
+	/**
+	 * 处理耗时百分位
+	 * @param p 百分位 0-1之间
+	 * @return 纳秒
+	 */
+	public long percentile(double p) {
+		return times.percentile(p);
+	}
+
+	/**
+	 * 处理耗时中位数
+	 * @return 纳秒
+	 */
+	public long p50() {
+		return percentile(0.5);
+	}
+
+	/**
+	 * 处理耗时99分位
+	 * @return 纳秒
+	 */
+	public long p99() {
+		return percentile(0.99);
+	}
+
+	/**
+	 * 处理耗时99.9分位
+	 * @return 纳秒
+	 */
+	public long p999() {
+		return percentile(0.999);
+	}
+
+	@Override
+	public String toString() {
+		return "id=" + id + ";count=" + count() + ";in=" + in() + ";out=" + out() + ";errors=" + errors() + ";p50=" + p50() + ";p99=" + p99() + ";p999=" + p999();
+	}
+}
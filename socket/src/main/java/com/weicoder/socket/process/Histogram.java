@@ -0,0 +1,72 @@
+package com.weicoder.socket.process;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 无锁耗时直方图 按2的幂分段 每段再分8个桶 误差约12.5%
+ * @author WD
+ */
+final class Histogram {
+	// 每段分桶数的位数
+	private final static int	SUB		= 3;
+	// 桶数 覆盖全部long正数
+	private final static int	SIZE	= (Long.SIZE - SUB + 1) << SUB;
+	// 桶计数
+	private AtomicLongArray		buckets	= new AtomicLongArray(SIZE);
+
+	/**
+	 * 记录一个值
+	 * @param value 值 负数按0记录
+	 */
+	void record(long value) {
+		buckets.incrementAndGet(index(Math.max(0, value)));
+	}
+
+	/**
+	 * 获得百分位的值 返回所在桶的下界
+	 * @param p 百分位 0-1之间
+	 * @return 值 没有记录时为0
+	 */
+	long percentile(double p) {
+		// 快照计数
+		long[] counts = new long[SIZE];
+		long total = 0;
+		for (int i = 0; i < SIZE; i++)
+			total += counts[i] = buckets.get(i);
+		if (total == 0)
+			return 0;
+		// 累计到目标位置
+		long target = Math.max(1, (long) Math.ceil(p * total));
+		long sum = 0;
+		for (int i = 0; i < SIZE; i++)
+			if ((sum += counts[i]) >= target)
+				return value(i);
+		return value(SIZE - 1);
+	}
+
+	/**
+	 * 值对应的桶下标
+	 * @param v 值
+	 * @return 下标
+	 */
+	private static int index(long v) {
+		// 小值直接对应
+		if (v < 1 << SUB)
+			return (int) v;
+		// 最高位所在段 段内按次高3位分桶
+		int exp = Long.SIZE - 1 - Long.numberOfLeadingZeros(v);
+		return ((exp - SUB + 1) << SUB) + (int) ((v >>> (exp - SUB)) & ((1 << SUB) - 1));
+	}
+
+	/**
+	 * 桶下标对应的下界值
+	 * @param i 下标
+	 * @return 值
+	 */
+	private static long value(int i) {
+		if (i < 1 << SUB)
+			return i;
+		int exp = (i >>> SUB) + SUB - 1;
+		return ((long) ((1 << SUB) + (i & ((1 << SUB) - 1)))) << (exp - SUB);
+	}
+}
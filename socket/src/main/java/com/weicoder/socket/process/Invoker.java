@@ -0,0 +1,81 @@
+package com.weicoder.socket.process;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+import com.weicoder.common.constants.ArrayConstants;
+import com.weicoder.socket.Session;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Head 方法调用器 启动时编译成直接调用句柄与参数绑定器
+ * @author WD
+ */
+final class Invoker {
+	// 调用句柄 统一为 (Object[])Object
+	private final static MethodType	TYPE	= MethodType.methodType(Object.class, Object[].class);
+	// 原方法
+	private final Method			method;
+	// 已绑定处理器对象的调用句柄
+	private final MethodHandle		handle;
+	// 参数绑定器
+	private final Binder[]			binders;
+	// 是否有参数需要复制消息数据
+	private final boolean			copy;
+
+	/**
+	 * 构造
+	 * @param handler 处理器对象
+	 * @param method 处理方法
+	 */
+	Invoker(Object handler, Method method) {
+		this.method = method;
+		// 解析参数绑定器
+		Class<?>[] types = method.getParameterTypes();
+		binders = new Binder[types.length];
+		boolean b = false;
+		for (int i = 0; i < types.length; i++) {
+			binders[i] = Binder.of(types[i]);
+			b |= Binder.copy(types[i]);
+		}
+		copy = b;
+		// 编译调用句柄
+		try {
+			method.setAccessible(true);
+			handle = MethodHandles.lookup().unreflect(method).bindTo(handler)
+					.asSpreader(Object[].class, types.length).asType(TYPE);
+		} catch (IllegalAccessException e) {
+			throw new IllegalArgumentException(e);
+		}
+	}
+
+	/**
+	 * 获得原方法
+	 * @return Method
+	 */
+	Method method() {
+		return method;
+	}
+
+	/**
+	 * 调用处理方法
+	 * @param session Session
+	 * @param data 消息数据
+	 * @return 方法返回值
+	 * @throws Throwable 处理方法抛出的异常
+	 */
+	Object invoke(Session session, ByteBuf data) throws Throwable {
+		// 绑定参数
+		int len = binders.length;
+		Object[] params = len == 0 ? ArrayConstants.OBJECT_EMPTY : new Object[len];
+		// 数组类型参数共用一份复制的数据
+		byte[][] bytes = copy ? new byte[1][] : null;
+		for (int i = 0; i < len; i++)
+			params[i] = binders[i].bind(session, data, bytes);
+		// 直接调用
+		return (Object) handle.invokeExact(params);
+	}
+}
@@ -0,0 +1,155 @@
+package com.weicoder.socket.process;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.weicoder.common.lang.Maps;
+
+/**
+ * Socket 统计 按指令统计调用次数 收发字节和处理耗时 以及解码失败 抛弃消息和Session队列深度
+ * @author WD
+ */
+public final class Metrics {
+	// 按名称保存统计
+	private final static Map<String, Metrics>	METRICS	= Maps.newConcurrentMap();
+	// 名称
+	private String								name;
+	// 指令统计 以指令id无符号值为下标
+	private AtomicReferenceArray<Counter>		counters;
+	// 解码失败数
+	private LongAdder							decodes;
+	// 抛弃的接收消息数
+	private LongAdder							discards;
+	// 发送队列溢出数
+	private LongAdder							overflows;
+	// 每个Session的顺序执行器 线程池模式下由处理器设置
+	private Map<Long, Worker>					workers;
+
+	/**
+	 * 获得统计
+	 * @param name 名称
+	 * @return 统计
+	 */
+	public static Metrics get(String name) {
+		return METRICS.computeIfAbsent(name, Metrics::new);
+	}
+
+	/**
+	 * 构造
+	 * @param name 名称
+	 */
+	private Metrics(String name) {
+		this.name = name;
+		this.counters = new AtomicReferenceArray<>(1 << Short.SIZE);
+		this.decodes = new LongAdder();
+		this.discards = new LongAdder();
+		this.overflows = new LongAdder();
+	}
+
+	/**
+	 * 获得指令统计 不存在时创建
+	 * @param id 指令
+	 * @return 统计
+	 */
+	public Counter counter(short id) {
+		int i = id & 0xFFFF;
+		Counter c = counters.get(i);
+		if (c == null && !counters.compareAndSet(i, null, c = new Counter(id)))
+			c = counters.get(i);
+		return c;
+	}
+
+	/**
+	 * 获得所有有记录的指令统计
+	 * @return 指令对应统计
+	 */
+	public Map<Short, Counter> counters() {
+		Map<Short, Counter> map = Maps.newMap();
+		for (int i = 0; i < counters.length(); i++) {
+			Counter c = counters.get(i);
+			if (c != null)
+				map.put(c.id(), c);
+		}
+		return map;
+	}
+
+	/**
+	 * 记录一次解码失败
+	 */
+	public void decode() {
+		decodes.increment();
+	}
+
+	/**
+	 * 记录一次抛弃的接收消息
+	 */
+	public void discard() {
+		discards.increment();
+	}
+
+	/**
+	 * 记录一次发送队列溢出
+	 */
+	public void overflow() {
+		overflows.increment();
+	}
+
+	/**
+	 * 解码失败数
+	 * @return 数量
+	 */
+	public long decodes() {
+		return decodes.sum();
+	}
+
+	/**
+	 * 抛弃的接收消息数 包括没有处理器和队列已满
+	 * @return 数量
+	 */
+	public long discards() {
+		return discards.sum();
+	}
+
+	/**
+	 * 发送队列溢出数
+	 * @return 数量
+	 */
+	public long overflows() {
+		return overflows.sum();
+	}
+
+	/**
+	 * 获得Session等待处理的消息数 Netty线程执行模式下为0
+	 * @param sid SessionId
+	 * @return 队列深度
+	 */
+	public int queue(long sid) {
+		Worker w = workers == null ? null : workers.get(sid);
+		return w == null ? 0 : w.size();
+	}
+
+	/**
+	 * 获得所有Session等待处理的消息数
+	 * @return SessionId对应队列深度
+	 */
+	public Map<Long, Integer> queues() {
+		Map<Long, Integer> map = Maps.newMap();
+		if (workers != null)
+			workers.forEach((k, w) -> map.put(k, w.size()));
+		return map;
+	}
+
+	/**
+	 * 设置Session顺序执行器
+	 * @param workers 顺序执行器
+	 */
+	void workers(Map<Long, Worker> workers) {
+		this.workers = workers;
+	}
+
+	@Override
+	public String toString() {
+		return "name=" + name + ";decodes=" + decodes() + ";discards=" + discards() + ";overflows=" + overflows() + ";counters=" + counters().values();
+	}
+}
@@ -2,27 +2,19 @@ package com.weicoder.socket.process;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
-import java.lang.reflect.Parameter;
-import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
-import com.weicoder.common.binary.Binary;
-import com.weicoder.common.binary.Buffer;
-import com.weicoder.common.binary.ByteArray;
-import com.weicoder.common.lang.Bytes;
+import com.weicoder.common.concurrent.ExecutorUtil;
 import com.weicoder.common.lang.Maps;
 import com.weicoder.common.util.BeanUtil;
 import com.weicoder.common.util.ClassUtil;
-import com.weicoder.common.util.CloseUtil;
 import com.weicoder.common.util.DateUtil;
-import com.weicoder.common.util.EmptyUtil;
-import com.weicoder.common.util.StringUtil;
 import com.weicoder.common.zip.ZipEngine;
-import com.weicoder.protobuf.Protobuf;
-import com.weicoder.protobuf.ProtobufEngine;
 import com.weicoder.common.log.Log;
 import com.weicoder.common.log.LogFactory;
 import com.weicoder.common.params.CommonParams;
+import com.weicoder.common.params.Params;
 import com.weicoder.socket.params.SocketParams;
 import com.weicoder.socket.Session;
 import com.weicoder.socket.Sockets;
@@ -30,8 +22,13 @@ import com.weicoder.socket.annotation.Closed;
 import com.weicoder.socket.annotation.Connected;
 import com.weicoder.socket.annotation.Handler;
 import com.weicoder.socket.annotation.Head;
+import com.weicoder.socket.annotation.Writable;
 import com.weicoder.socket.manager.Manager;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+
 /**
  * Socket 数据处理器实现
  * @author WD
@@ -39,20 +36,30 @@ import com.weicoder.socket.manager.Manager;
 public final class Process {
 	// 日志
 	private final static Log	LOG	= LogFactory.getLog(Process.class);
-	// Handler列表
-	private Map<Short, Object>	handlers;
-	// head 对应方法
-	private Map<Short, Method>	methods;
+	// head 对应调用器 以指令id无符号值为下标
+	private Invoker[]			invokers;
 	// 关闭处理器
 	private Map<Object, Method>	closeds;
 	// 连接处理器
 	private Map<Object, Method>	connected;
+	// 可写状态变化处理器
+	private Map<Object, Method>	writables;
 	// 管理器
 	private Manager				manager;
 	// 处理器名字
 	private String				name;
 	// 是否使用压缩
 	private boolean				zip;
+	// 是否带关联ID
+	private boolean				correlate;
+	// 执行Handler的线程池 为空时在Netty线程执行
+	private Executor			executor;
+	// 每个Session的顺序执行器
+	private Map<Long, Worker>	workers;
+	// 每个Session等待处理的消息上限
+	private int					queue;
+	// 统计
+	private Metrics				metrics;
 
 	/**
 	 * 构造
@@ -60,14 +67,26 @@ public final class Process {
 	 */
 	public Process(String name) {
 		// 设置属性
-		handlers = Maps.newMap();
-		methods = Maps.newMap();
+		invokers = new Invoker[1 << Short.SIZE];
 		closeds = Maps.newMap();
+		connected = Maps.newMap();
+		writables = Maps.newMap();
 		this.name = name;
 		// 获得是否压缩
 		this.zip = SocketParams.isZip(name);
+		// 获得是否带关联ID
+		this.correlate = SocketParams.isCorrelate(name);
 		// 获得管理器
 		this.manager = Sockets.manager();
+		// 获得统计
+		this.metrics = Metrics.get(name);
+		// 线程池执行模式
+		if ("pool".equals(SocketParams.getMode(name))) {
+			this.executor = ExecutorUtil.pool(Params.getKey("socket", name, null));
+			this.workers = Maps.newConcurrentMap();
+			this.queue = SocketParams.getQueue(name);
+			this.metrics.workers(workers);
+		}
 
 		// 设置handler closed
 		ClassUtil.getAnnotationClass(CommonParams.getPackages("socket"), Handler.class).forEach(c -> {
@@ -79,17 +98,18 @@ public final class Process {
 					// 判断是公有方法
 					if (Modifier.isPublic(m.getModifiers()))
 						// 是head 头的
-						if (m.isAnnotationPresent(Head.class)) {
-							// 添加到map中
-							short id = m.getAnnotation(Head.class).id();
-							methods.put(id, m);
-							handlers.put(id, h);
-						} else if (m.isAnnotationPresent(Closed.class))
+						if (m.isAnnotationPresent(Head.class))
+							// 编译成调用器 添加到数组中
+							invokers[m.getAnnotation(Head.class).id() & 0xFFFF] = new Invoker(h, m);
+						else if (m.isAnnotationPresent(Closed.class))
 							// Closed 头
 							closeds.put(h, m);
 						else if (m.isAnnotationPresent(Connected.class))
 							// Closed 头
 							connected.put(h, m);
+						else if (m.isAnnotationPresent(Writable.class))
+							// Writable 头
+							writables.put(h, m);
 			}
 		});
 	}
@@ -99,8 +119,9 @@ public final class Process {
 	 * @param session Session
 	 */
 	public void connected(Session session) {
-		// 管理器注册Session
-		manager.register(session);
+		// 管理器注册Session 客户端没有管理器
+		if (manager != null)
+			manager.register(session);
 		// 如果连接处理器不为空
 		for (Map.Entry<Object, Method> e : connected.entrySet()) {
 			// 获得关闭方法
@@ -129,152 +150,127 @@ public final class Process {
 				BeanUtil.invoke(e.getKey(), m);
 		}
 		// 删除管理器注册Session
-		manager.remove(session.getId());
+		if (manager != null)
+			manager.remove(session.getId());
+		// 删除顺序执行器
+		if (workers != null)
+			workers.remove(session.getId());
 		// 删除缓存
 		LOG.info("name={};socket close={};ip={}", name, session.getId(), session.getIp());
 	}
 
 	/**
-	 * 处理数据 消息处理 short(消息长度不算本身2字节) short(ID) byte[]
+	 * Session可写状态变化时 用于处理器感知发送背压
 	 * @param session Session
-	 * @param message 字节流
+	 * @param writable 是否可写
 	 */
-	public void process(Session session, byte[] message) {
-		// 获得session id
-		long sid = session.getId();
-		LOG.debug("name={};socket={};len={};message={}", name, sid, message.length, Arrays.toString(message));
-		// 获得全局buffer
-		Buffer buff = session.buffer();
-		// 添加新消息到全局缓存中
-		buff.write(message);
-		// 循环读取数据
-		while (true) {
-			// 剩余字节长度不足，等待下次信息
-			if (buff.remaining() < 4)
-				// 压缩并跳出循环
-				break;
-			// 获得信息长度
-			short length = buff.readShort();
-			// 无长度 发送消息不符合 关掉连接
-			if (length < 2 || length > Short.MAX_VALUE) {
-				CloseUtil.close(session);
-				LOG.info("name={};error len close id={};len={}", name, session.getId(), length);
-				return;
-			}
-			// 剩余字节长度不足，等待下次信息
-			if (buff.remaining() < length) {
-				// 重置缓存
-				buff.offset(buff.offset() - 2);
-				break;
-			}
-			// 读取指令id
-			short id = buff.readShort();
-			// 消息长度
-			int len = length - 2;
-			// 读取指定长度的字节数
-			byte[] data = new byte[len];
-			// 读取指定长度字节数组
-			if (len > 0) {
-				// 读取字节数组
-				buff.read(data);
-				// 启用压缩
-				if (zip)
-					// 解压缩
-					data = ZipEngine.extract(data);
-			}
-			// 获得相应的方法
-			Method m = methods.get(id);
-			// 如果处理器为空
-			if (m == null) {
-				// 抛弃这次消息
-				LOG.warn("name={};socket={};handler message discard id={};message len={}", name, sid, id, len);
-				return;
-			}
-			LOG.info("name={};socket={};receive len={};id={};method={};time={}", name, sid, length, id, m, DateUtil.getTheDate());
+	public void writable(Session session, boolean writable) {
+		for (Map.Entry<Object, Method> e : writables.entrySet()) {
+			// 按参数类型设置参数
+			Method m = e.getValue();
+			Class<?>[] types = m.getParameterTypes();
+			Object[] params = new Object[types.length];
+			for (int i = 0; i < types.length; i++)
+				if (Session.class.isAssignableFrom(types[i]))
+					params[i] = session;
+				else if (types[i].equals(boolean.class) || types[i].equals(Boolean.class))
+					params[i] = writable;
+			BeanUtil.invoke(e.getKey(), m, params);
+		}
+		LOG.debug("name={};socket={};writable={}", name, session.getId(), writable);
+	}
+
+	/**
+	 * 获得Session等待处理的消息数 Netty线程执行模式下为0
+	 * @param session Session
+	 * @return 队列深度
+	 */
+	public int queue(Session session) {
+		return metrics.queue(session.getId());
+	}
+
+	/**
+	 * 获得统计
+	 * @return 统计
+	 */
+	public Metrics metrics() {
+		return metrics;
+	}
+
+	/**
+	 * 处理数据 消息处理 short(ID) [int(关联ID)] byte[] 长度已由解码器拆分<br/>
+	 * 线程池模式下同一Session的消息按顺序执行 不同Session并行
+	 * @param session Session
+	 * @param frame 一个完整帧 由调用方负责释放
+	 */
+	public void process(Session session, ByteBuf frame) {
+		// 在Netty线程直接执行
+		if (executor == null) {
+			handle(session, frame);
+			return;
+		}
+		// 交给Session的顺序执行器 帧需要保留到执行结束
+		Worker w = workers.computeIfAbsent(session.getId(), k -> new Worker(executor, queue));
+		frame.retain();
+		if (!w.execute(() -> {
 			try {
-				// 当前时间
-				long curr = System.currentTimeMillis();
-				// 回调处理器
-				m.invoke(handlers.get(id), getParames(m, data, session));
-				// 设置心跳时间
-				session.setHeart(DateUtil.getTime());
-				LOG.info("name={};socket={};handler end time={}", name, sid, System.currentTimeMillis() - curr);
-			} catch (Exception e) {
-				LOG.error(e);
-			}
-			// 如果缓存区为空
-			if (buff.remaining() == 0) {
-				// 清除并跳出
-				buff.clear();
-				break;
+				handle(session, frame);
+			} finally {
+				frame.release();
 			}
+		})) {
+			// 队列已满 抛弃这次消息
+			metrics.discard();
+			LOG.warn("name={};socket={};queue full message discard len={};queue={}", name, session.getId(), frame.readableBytes(), w.size());
+			frame.release();
 		}
 	}
 
-	private Object[] getParames(Method m, byte[] data, Session session) {
-		// 如果数据为空
-		if (EmptyUtil.isEmpty(data))
-			return null;
-		// 设置参数
-		Parameter[] pars = m.getParameters();
-		Object[] params = null;
-		if (EmptyUtil.isNotEmpty(pars)) {
-			// 参数不为空 设置参数
-			params = new Object[pars.length];
-			// action全部参数下标
-			int i = 0;
-			for (; i < pars.length; i++) {
-				// 判断类型并设置
-				Parameter p = pars[i];
-				// 参数的类型
-				Class<?> type = p.getType();
-				if (Session.class.isAssignableFrom(type))
-					// Session
-					params[i] = session;
-				else if (Manager.class.equals(type))
-					// Manager
-					params[i] = Sockets.manager();
-				else if (type.isAnnotationPresent(Protobuf.class))
-					// 字节流
-					params[i] = ProtobufEngine.toBean(data, type);
-				else if (type.equals(String.class))
-					// 字符串
-					params[i] = StringUtil.toString(data);
-				else if (Binary.class.isAssignableFrom(type))
-					// 字节流
-					params[i] = Bytes.toBinary(type, data);
-				else if (ByteArray.class.isAssignableFrom(type))
-					// 字节流
-					params[i] = ((ByteArray) ClassUtil.newInstance(type)).array(data);
-				else if (type.equals(Buffer.class))
-					// 字节流
-					params[i] = new Buffer(data);
-				else if (type.equals(int.class) || type.equals(Integer.class))
-					// 整型
-					params[i] = Bytes.toInt(data);
-				else if (type.equals(long.class) || type.equals(Long.class))
-					// 长整型
-					params[i] = Bytes.toLong(data);
-				else if (type.equals(boolean.class) || type.equals(Boolean.class))
-					// 布尔
-					params[i] = Bytes.toBoolean(data);
-				else if (type.equals(float.class) || type.equals(Float.class))
-					// float型
-					params[i] = Bytes.toFloat(data);
-				else if (type.equals(double.class) || type.equals(Double.class))
-					// Double型
-					params[i] = Bytes.toDouble(data);
-				else if (type.equals(byte.class) || type.equals(Byte.class))
-					// 字节流
-					params[i] = data[0];
-				else if (type.equals(byte[].class))
-					// 字节流
-					params[i] = data;
-				else
-					params[i] = null;
-			}
+	/**
+	 * 处理一个完整帧
+	 * @param session Session
+	 * @param frame 帧
+	 */
+	private void handle(Session session, ByteBuf frame) {
+		// 获得session id
+		long sid = session.getId();
+		// 读取指令id
+		short id = SocketParams.HIGH ? frame.readShort() : frame.readShortLE();
+		// 读取关联ID 不为0时需要回复
+		int corr = correlate ? (SocketParams.HIGH ? frame.readInt() : frame.readIntLE()) : 0;
+		// 消息长度
+		int len = frame.readableBytes();
+		LOG.debug("name={};socket={};id={};len={}", name, sid, id, len);
+		// 获得相应的调用器
+		Invoker invoker = invokers[id & 0xFFFF];
+		// 如果处理器为空
+		if (invoker == null) {
+			// 抛弃这次消息
+			metrics.discard();
+			LOG.warn("name={};socket={};handler message discard id={};message len={}", name, sid, id, len);
+			return;
+		}
+		// 记录接收
+		Counter counter = metrics.counter(id);
+		counter.receive(len);
+		// 当前时间
+		long curr = System.nanoTime();
+		try {
+			// 启用压缩 解压缩后包装成堆内ByteBuf
+			ByteBuf data = zip && len > 0 ? Unpooled.wrappedBuffer(ZipEngine.extract(ByteBufUtil.getBytes(frame))) : frame;
+			// 回调处理器
+			Object result = invoker.invoke(session, data);
+			// 请求消息 以返回值回复
+			if (corr != 0)
+				session.send(id, corr, result);
+			// 设置心跳时间
+			session.setHeart(DateUtil.getTime());
+		} catch (Throwable e) {
+			counter.error();
+			LOG.error(e);
+		} finally {
+			// 记录处理耗时
+			counter.time(System.nanoTime() - curr);
 		}
-		// 返回参数
-		return params;
 	}
 }
@@ -0,0 +1,98 @@
+package com.weicoder.socket.process;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.weicoder.common.log.Logs;
+
+/**
+ * Session 顺序执行器 同一Session的任务按顺序在线程池执行 不同Session并行
+ * @author WD
+ */
+final class Worker implements Runnable {
+	// 任务队列
+	private final Queue<Runnable>	queue	= new ConcurrentLinkedQueue<>();
+	// 队列深度
+	private final AtomicInteger		size	= new AtomicInteger();
+	// 是否已提交到线程池
+	private final AtomicBoolean		running	= new AtomicBoolean();
+	// 线程池
+	private final Executor			executor;
+	// 队列深度上限 小于等于0不限制
+	private final int				limit;
+
+	/**
+	 * 构造
+	 * @param executor 线程池
+	 * @param limit 队列深度上限
+	 */
+	Worker(Executor executor, int limit) {
+		this.executor = executor;
+		this.limit = limit;
+	}
+
+	/**
+	 * 添加任务
+	 * @param task 任务
+	 * @return 队列已满返回false
+	 */
+	boolean execute(Runnable task) {
+		// 占用队列位置 超过队列上限返回
+		if (limit > 0)
+			for (int n;;) {
+				if ((n = size.get()) >= limit)
+					return false;
+				if (size.compareAndSet(n, n + 1))
+					break;
+			}
+		else
+			size.incrementAndGet();
+		// 添加到队列
+		queue.offer(task);
+		// 没有在执行 提交到线程池
+		if (running.compareAndSet(false, true))
+			try {
+				executor.execute(this);
+			} catch (RejectedExecutionException e) {
+				// 线程池拒绝 释放执行状态 撤回本次任务 下次添加时重新提交
+				running.set(false);
+				if (queue.remove(task))
+					size.decrementAndGet();
+				Logs.warn("socket worker rejected size={}", size.get());
+				return false;
+			}
+		return true;
+	}
+
+	/**
+	 * 获得队列深度
+	 * @return 未执行的任务数
+	 */
+	int size() {
+		return size.get();
+	}
+
+	@Override
+	public void run() {
+		for (;;) {
+			// 按顺序执行队列中的任务
+			Runnable task;
+			while ((task = queue.poll()) != null) {
+				size.decrementAndGet();
+				try {
+					task.run();
+				} catch (Throwable e) {
+					Logs.error(e);
+				}
+			}
+			// 释放执行状态 再次检查期间是否有新任务
+			running.set(false);
+			if (queue.isEmpty() || !running.compareAndSet(false, true))
+				return;
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package com.weicoder.web.common;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.weicoder.common.interfaces.Converter;
+import com.weicoder.common.lang.Conversion;
+import com.weicoder.common.lang.Lists;
+import com.weicoder.common.lang.Maps;
+import com.weicoder.common.lang.Sets;
+import com.weicoder.common.log.Logs;
+import com.weicoder.common.util.BeanUtil;
+import com.weicoder.web.params.WebParams;
+import com.weicoder.web.validator.Validators;
+
+/**
+ * 把提交参数绑定到bean 每个类只解析一次 字段的设置编译成MethodHandle 字符串转换器提前解析
+ * @author WD
+ */
+final class BeanBinder {
+	// 按类缓存
+	private final static Map<Class<?>, BeanBinder>	BINDERS	= Maps.newConcurrentMap();
+	// 查找MethodHandle
+	private final static MethodHandles.Lookup		LOOKUP	= MethodHandles.lookup();
+	// bean类
+	private final Class<?>							type;
+	// 字段名
+	private final String[]							names;
+	// 设置字段值 (Object,Object)void
+	private final MethodHandle[]					setters;
+	// 字符串转换成字段类型
+	private final Converter<Object, Object>[]		converters;
+	// 需要验证字段的读取 (Object)Object
+	private final MethodHandle[]					getters;
+	// 需要验证字段的注解 与getters下标对应
+	private final Annotation[][]					annotations;
+
+	/**
+	 * 获得类的绑定器
+	 * @param c 类
+	 * @return 绑定器
+	 */
+	static BeanBinder get(Class<?> c) {
+		return BINDERS.computeIfAbsent(c, BeanBinder::new);
+	}
+
+	/**
+	 * 构造 解析字段
+	 * @param type bean类
+	 */
+	@SuppressWarnings("unchecked")
+	private BeanBinder(Class<?> type) {
+		this.type = type;
+		// 可设置的字段 同名字段只保留子类字段
+		List<String> names = Lists.newList();
+		List<MethodHandle> setters = Lists.newList();
+		List<Converter<Object, Object>> converters = Lists.newList();
+		List<MethodHandle> getters = Lists.newList();
+		List<Annotation[]> annotations = Lists.newList();
+		Set<String> exists = Sets.newSet();
+		for (Field f : BeanUtil.getFields(type)) {
+			int m = f.getModifiers();
+			if (Modifier.isStatic(m) || f.isSynthetic() || !exists.add(f.getName()))
+				continue;
+			try {
+				f.setAccessible(true);
+				// 需要验证的字段
+				Annotation[] as = f.getAnnotations();
+				if (as.length > 0) {
+					getters.add(LOOKUP.unreflectGetter(f).asType(MethodType.methodType(Object.class, Object.class)));
+					annotations.add(as);
+				}
+				// final字段不设置
+				if (Modifier.isFinal(m))
+					continue;
+				setters.add(LOOKUP.unreflectSetter(f).asType(MethodType.methodType(void.class, Object.class, Object.class)));
+				names.add(f.getName());
+				converters.add(Conversion.converter(String.class, f.getType()));
+			} catch (Exception e) {
+				Logs.warn("bean binder field not compiled class={} field={} error={}", type.getName(), f.getName(), e);
+			}
+		}
+		this.names = names.toArray(new String[names.size()]);
+		this.setters = setters.toArray(new MethodHandle[setters.size()]);
+		this.converters = converters.toArray(new Converter[converters.size()]);
+		this.getters = getters.toArray(new MethodHandle[getters.size()]);
+		this.annotations = annotations.toArray(new Annotation[annotations.size()][]);
+	}
+
+	/**
+	 * 实例化bean并设置同名参数
+	 * @param ps 提交参数
+	 * @return bean
+	 */
+	Object bind(Map<String, String> ps) {
+		// 实例化
+		Object bean = BeanUtil.newInstance(type);
+		if (bean == null)
+			return null;
+		// 设置有值的字段
+		for (int i = 0; i < names.length; i++) {
+			String v = ps.get(names[i]);
+			if (v != null)
+				try {
+					setters[i].invokeExact(bean, converters[i].convert(v));
+				} catch (Throwable e) {
+					Logs.debug("bean binder set class={} field={} value={} error={}", type.getName(), names[i], v, e);
+				}
+		}
+		// 返回bean
+		return bean;
+	}
+
+	/**
+	 * 验证bean字段
+	 * @param bean bean
+	 * @return 验证码
+	 */
+	int validator(Object bean) {
+		for (int i = 0; i < getters.length; i++)
+			try {
+				int code = Validators.validator(annotations[i], (Object) getters[i].invokeExact(bean));
+				if (code != WebParams.STATE_SUCCESS)
+					return code;
+			} catch (Throwable e) {
+				Logs.error(e);
+			}
+		// 返回成功码
+		return WebParams.STATE_SUCCESS;
+	}
+}
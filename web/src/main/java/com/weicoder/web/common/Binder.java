@@ -0,0 +1,134 @@
+package com.weicoder.web.common;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.weicoder.common.interfaces.Converter;
+import com.weicoder.common.lang.Conversion;
+import com.weicoder.common.token.TokenBean;
+import com.weicoder.common.token.TokenEngine;
+import com.weicoder.common.util.ClassUtil;
+import com.weicoder.web.params.WebParams;
+import com.weicoder.web.validator.Validators;
+
+/**
+ * Action方法参数绑定器 启动时按方法解析每个参数的取值和验证方式
+ * @author WD
+ */
+public final class Binder {
+	// 参数类型 HttpServletRequest
+	private final static int				REQUEST		= 0;
+	// 参数类型 HttpServletResponse
+	private final static int				RESPONSE	= 1;
+	// 参数类型 TokenBean
+	private final static int				TOKEN		= 2;
+	// 参数类型 全部参数Map
+	private final static int				MAP			= 3;
+	// 参数类型 基础类型
+	private final static int				BASE		= 4;
+	// 参数类型 bean
+	private final static int				BEAN		= 5;
+	// 参数类型
+	private final int[]						kinds;
+	// 参数名
+	private final String[]					names;
+	// 基础类型的字符串转换器
+	private final Converter<Object, Object>[]	converters;
+	// 基础类型没有提交时的值
+	private final Object[]					defaults;
+	// 基础类型的验证注解
+	private final Annotation[][]			annotations;
+	// bean绑定器
+	private final BeanBinder[]				beans;
+
+	/**
+	 * 构造 解析方法参数
+	 * @param method 方法
+	 */
+	@SuppressWarnings("unchecked")
+	public Binder(Method method) {
+		Parameter[] pars = method.getParameters();
+		int len = pars.length;
+		kinds = new int[len];
+		names = new String[len];
+		converters = new Converter[len];
+		defaults = new Object[len];
+		annotations = new Annotation[len][];
+		beans = new BeanBinder[len];
+		for (int i = 0; i < len; i++) {
+			Parameter p = pars[i];
+			Class<?> cs = p.getType();
+			names[i] = p.getName();
+			if (HttpServletRequest.class.equals(cs))
+				kinds[i] = REQUEST;
+			else if (HttpServletResponse.class.equals(cs))
+				kinds[i] = RESPONSE;
+			else if (TokenBean.class.equals(cs))
+				kinds[i] = TOKEN;
+			else if (Map.class.equals(cs))
+				kinds[i] = MAP;
+			else if (ClassUtil.isBaseType(cs)) {
+				kinds[i] = BASE;
+				converters[i] = Conversion.converter(String.class, cs);
+				defaults[i] = Conversion.to(null, cs);
+				annotations[i] = p.getAnnotations();
+			} else {
+				kinds[i] = BEAN;
+				beans[i] = BeanBinder.get(cs);
+			}
+		}
+	}
+
+	/**
+	 * 参数数量
+	 * @return 数量
+	 */
+	public int size() {
+		return kinds.length;
+	}
+
+	/**
+	 * 绑定参数并验证 验证失败停止绑定
+	 * @param request HttpServletRequest
+	 * @param response HttpServletResponse
+	 * @param ps 提交参数
+	 * @param params 方法参数 长度为参数数量
+	 * @return 验证码
+	 */
+	public int bind(HttpServletRequest request, HttpServletResponse response, Map<String, String> ps, Object[] params) {
+		int code = WebParams.STATE_SUCCESS;
+		for (int i = 0; i < kinds.length && code == WebParams.STATE_SUCCESS; i++)
+			switch (kinds[i]) {
+				case REQUEST:
+					params[i] = request;
+					break;
+				case RESPONSE:
+					params[i] = response;
+					break;
+				case TOKEN:
+					// 设置Token
+					params[i] = TokenEngine.decrypt(ps.get(names[i]));
+					break;
+				case MAP:
+					params[i] = ps;
+					break;
+				case BASE:
+					// 获得参数并验证
+					String v = ps.get(names[i]);
+					params[i] = v == null ? defaults[i] : converters[i].convert(v);
+					code = Validators.validator(annotations[i], params[i]);
+					break;
+				default:
+					// 设置属性并验证
+					params[i] = beans[i].bind(ps);
+					code = params[i] == null ? WebParams.STATE_SUCCESS : beans[i].validator(params[i]);
+			}
+		// 返回验证码
+		return code;
+	}
+}
@@ -0,0 +1,110 @@
+package com.weicoder.web.common;
+
+import java.util.AbstractMap;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.Set;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+
+import com.weicoder.common.lang.Conversion;
+import com.weicoder.common.lang.Maps;
+
+/**
+ * request参数的延迟视图 按键读取时才从request查找 找到的值缓存<br/>
+ * 优先级与RequestUtil.getAll相同 parameter > header > cookie > attribute<br/>
+ * 只在请求处理期间有效 遍历或取大小时才合并全部参数
+ * @author WD
+ */
+public final class RequestMap extends AbstractMap<String, String> {
+	// request
+	private final HttpServletRequest	request;
+	// 已读取和设置的值
+	private final Map<String, String>	values;
+	// 是否已合并全部参数
+	private boolean						loaded;
+
+	/**
+	 * 构造
+	 * @param request HttpServletRequest
+	 */
+	public RequestMap(HttpServletRequest request) {
+		this.request = request;
+		this.values = Maps.newMap();
+	}
+
+	@Override
+	public String get(Object key) {
+		// 不是字符串键
+		if (!(key instanceof String))
+			return null;
+		// 已读取过或设置过
+		String v = values.get(key);
+		if (v != null || loaded)
+			return v;
+		// 从request查找 找到缓存
+		v = find((String) key);
+		if (v != null)
+			values.put((String) key, v);
+		return v;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return get(key) != null;
+	}
+
+	@Override
+	public String put(String key, String value) {
+		String v = get(key);
+		values.put(key, value);
+		return v;
+	}
+
+	@Override
+	public Set<Entry<String, String>> entrySet() {
+		// 合并全部参数 已设置的值不覆盖
+		if (!loaded) {
+			for (Enumeration<String> e = request.getAttributeNames(); e.hasMoreElements();)
+				get(e.nextElement());
+			Cookie[] cookies = request.getCookies();
+			if (cookies != null)
+				for (Cookie c : cookies)
+					get(c.getName());
+			for (Enumeration<String> e = request.getHeaderNames(); e.hasMoreElements();)
+				get(e.nextElement());
+			for (Enumeration<String> e = request.getParameterNames(); e.hasMoreElements();)
+				get(e.nextElement());
+			loaded = true;
+		}
+		return values.entrySet();
+	}
+
+	/**
+	 * 按优先级从request查找值
+	 * @param key 键
+	 * @return 值 没有返回null
+	 */
+	private String find(String key) {
+		// 提交参数
+		String v = request.getParameter(key);
+		if (v != null)
+			return v;
+		// 头参数
+		v = request.getHeader(key);
+		if (v != null)
+			return v;
+		// cookie 同名取最后一个
+		Cookie[] cookies = request.getCookies();
+		if (cookies != null)
+			for (Cookie c : cookies)
+				if (key.equals(c.getName()))
+					v = c.getValue();
+		if (v != null)
+			return v;
+		// 属性
+		Object o = request.getAttribute(key);
+		return o == null ? null : Conversion.toString(o);
+	}
+}
@@ -0,0 +1,222 @@
+package com.weicoder.web.common;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Arrays;
+
+import com.weicoder.common.constants.ArrayConstants;
+import com.weicoder.common.constants.StringConstants;
+import com.weicoder.common.log.Logs;
+import com.weicoder.common.util.BeanUtil;
+import com.weicoder.web.annotation.Action;
+import com.weicoder.web.annotation.Cookies;
+import com.weicoder.web.annotation.Forward;
+import com.weicoder.web.annotation.Get;
+import com.weicoder.web.annotation.Post;
+import com.weicoder.web.annotation.Redirect;
+import com.weicoder.web.annotation.State;
+import com.weicoder.web.params.WebParams;
+
+/**
+ * Action路由 启动时解析方法和注解 请求时不再读取注解
+ * @author WD
+ */
+public final class Route {
+	/** 返回结果直接写json */
+	public final static int		JSON		= 0;
+	/** 返回结果为跳转url */
+	public final static int		REDIRECT	= 1;
+	/** 返回结果为转发url */
+	public final static int		FORWARD		= 2;
+	/** 返回结果按状态码包装 */
+	public final static int		STATE		= 3;
+	// action名
+	private final String		name;
+	// action对象
+	private final Object		action;
+	// 方法
+	private final Method		method;
+	// 方法参数
+	private final Parameter[]	parameters;
+	// 调用方法 (Object[])Object
+	private final MethodHandle	invoker;
+	// 参数绑定器
+	private final Binder		binder;
+	// 是否验证ip
+	private final boolean		ips;
+	// 是否只允许post
+	private final boolean		post;
+	// 是否只允许get
+	private final boolean		get;
+	// 返回结果处理方式
+	private final int			result;
+	// 状态码注解
+	private final State			state;
+	// 写cookie注解
+	private final Cookies		cookies;
+	// 异步结果超时时间 毫秒
+	private final long			timeout;
+
+	/**
+	 * 构造
+	 * @param name action名
+	 * @param action action对象
+	 * @param method 方法
+	 */
+	public Route(String name, Object action, Method method) {
+		this.name = name;
+		this.action = action;
+		this.method = method;
+		this.parameters = method.getParameters();
+		// 编译调用方法
+		MethodHandle h = null;
+		try {
+			method.setAccessible(true);
+			h = MethodHandles.lookup().unreflect(method).bindTo(action).asSpreader(Object[].class, parameters.length);
+		} catch (Exception e) {
+			Logs.warn("route method not compiled action={} method={} error={}", name, method.getName(), e);
+		}
+		this.invoker = h;
+		// 编译参数绑定
+		this.binder = new Binder(method);
+		// 解析注解
+		Class<?> c = action.getClass();
+		this.ips = c.getAnnotation(Action.class) != null && c.getAnnotation(Action.class).ips();
+		this.post = method.isAnnotationPresent(Post.class);
+		this.get = method.isAnnotationPresent(Get.class);
+		this.state = annotation(method, c, State.class);
+		this.cookies = annotation(method, c, Cookies.class);
+		this.timeout = WebParams.getTimeout(name + StringConstants.POINT + method.getName());
+		if (annotation(method, c, Redirect.class) != null)
+			this.result = REDIRECT;
+		else if (annotation(method, c, Forward.class) != null)
+			this.result = FORWARD;
+		else if (state != null)
+			this.result = STATE;
+		else
+			this.result = JSON;
+	}
+
+	/**
+	 * 调用方法
+	 * @param params 参数
+	 * @return 方法返回值 异常返回null
+	 */
+	public Object invoke(Object[] params) {
+		// 没有编译的方法使用反射调用
+		if (invoker == null)
+			return BeanUtil.invoke(action, method, params);
+		try {
+			return invoker.invoke(params == null ? ArrayConstants.OBJECT_EMPTY : params);
+		} catch (Throwable e) {
+			Logs.error(e, "invoke method={} args={} params={}", method.getName(), Arrays.toString(params), Arrays.toString(parameters));
+			return null;
+		}
+	}
+
+	/**
+	 * 提交方法是否允许
+	 * @param m 提交方法
+	 * @return 是否允许
+	 */
+	public boolean allow(String m) {
+		return !(post && !"POST".equalsIgnoreCase(m)) && !(get && !"GET".equalsIgnoreCase(m));
+	}
+
+	/**
+	 * 获得action名
+	 * @return action名
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * 获得action对象
+	 * @return action对象
+	 */
+	public Object getAction() {
+		return action;
+	}
+
+	/**
+	 * 获得方法
+	 * @return 方法
+	 */
+	public Method getMethod() {
+		return method;
+	}
+
+	/**
+	 * 获得方法参数
+	 * @return 方法参数
+	 */
+	public Parameter[] getParameters() {
+		return parameters;
+	}
+
+	/**
+	 * 获得参数绑定器
+	 * @return 参数绑定器
+	 */
+	public Binder getBinder() {
+		return binder;
+	}
+
+	/**
+	 * 是否验证ip
+	 * @return 是否验证ip
+	 */
+	public boolean isIps() {
+		return ips;
+	}
+
+	/**
+	 * 获得返回结果处理方式
+	 * @return JSON REDIRECT FORWARD STATE
+	 */
+	public int getResult() {
+		return result;
+	}
+
+	/**
+	 * 获得状态码注解
+	 * @return 状态码注解 没有返回null
+	 */
+	public State getState() {
+		return state;
+	}
+
+	/**
+	 * 获得写cookie注解
+	 * @return cookie注解 没有返回null
+	 */
+	public Cookies getCookies() {
+		return cookies;
+	}
+
+	/**
+	 * 获得异步结果超时时间 返回CompletionStage的方法使用
+	 * @return 超时时间 毫秒 0为不超时
+	 */
+	public long getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * 获得方法上的注解 没有获得类上的注解
+	 * @param method 方法
+	 * @param c 类
+	 * @param a 注解
+	 * @param <A> 注解类型
+	 * @return 注解
+	 */
+	private static <A extends Annotation> A annotation(AnnotatedElement method, Class<?> c, Class<A> a) {
+		A r = method.getAnnotation(a);
+		return r == null ? c.getAnnotation(a) : r;
+	}
+}
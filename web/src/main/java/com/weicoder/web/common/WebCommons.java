@@ -21,6 +21,12 @@ public final class WebCommons {
 	public final static Map<Method, Parameter[]>			METHODS_PARAMES				= Maps.newMap();
 	/** 回调方法处理 */
 	public final static Map<String, Method>					METHODS						= Maps.newMap(); 
+	/** 路由表 提交路径对应路由 */
+	public final static Map<String, Route>					ROUTES						= Maps.newMap();
+	/** action名对应方法路由 */
+	public final static Map<String, Map<String, Route>>		ACTIONS_ROUTES				= Maps.newMap();
+	/** 方法名对应路由 */
+	public final static Map<String, Route>					METHODS_ROUTES				= Maps.newMap();
 	/** 验证类列表 */
 	public final static Map<String, Object>					VALIDATORS					= Maps.newMap();
 	/** 验证类方法处理 */
@@ -8,11 +8,13 @@ import javax.servlet.ServletContextEvent;
 import javax.servlet.ServletContextListener;
 import javax.servlet.annotation.WebListener;
 
+import com.weicoder.common.constants.StringConstants;
 import com.weicoder.common.lang.Maps;
 import com.weicoder.common.util.BeanUtil;
 import com.weicoder.common.util.ClassUtil;
 import com.weicoder.common.util.StringUtil;
 import com.weicoder.web.annotation.Action;
+import com.weicoder.web.common.Route;
 import com.weicoder.web.common.WebCommons;
 import com.weicoder.web.validator.Validators; 
 import com.weicoder.common.log.Logs;
@@ -60,12 +62,25 @@ public class InitListener implements ServletContextListener {
 							WebCommons.METHODS_ACTIONS.put(mname, action);
 							// 放入参数池
 							WebCommons.METHODS_PARAMES.put(m, m.getParameters());
+							// 编译路由
+							Route route = new Route(cname, action, m);
+							WebCommons.ACTIONS_ROUTES.computeIfAbsent(cname, k -> Maps.newMap()).put(mname, route);
+							WebCommons.METHODS_ROUTES.put(mname, route);
+							// 路由表 action/method 和不带分隔符的 action_method method
+							WebCommons.ROUTES.put(cname + StringConstants.BACKSLASH + mname, route);
+							if (!StringUtil.contains(cname, StringConstants.UNDERLINE) && !StringUtil.contains(mname, StringConstants.UNDERLINE))
+								WebCommons.ROUTES.put(cname + StringConstants.UNDERLINE + mname, route);
 						}
 					}
 				}
 			} catch (Exception ex) {
 				Logs.error(ex);
 			}
-		}); 
+		});
+		// 只有方法名的路由 方法名重复时与METHODS一样后加载的生效
+		WebCommons.METHODS_ROUTES.forEach((mname, route) -> {
+			if (!StringUtil.contains(mname, StringConstants.UNDERLINE))
+				WebCommons.ROUTES.put(mname, route);
+		});
 	}
 }
@@ -21,6 +21,21 @@ public final class WebParams {
 	public final static int		STATE_SUCCESS		= Params.getInt("state.success", 0);
 	/** 状态码成功信息 */
 	public final static String	STATE_SUCCESS_MSG	= Params.getString("state.success.msg", "success");
+	/** action结果是否直接流式写入输出流 不生成中间字符串 */
+	public final static boolean	RESPONSE_STREAM		= Params.getBoolean("response.stream", true);
+	/** 日志记录的返回结果最大长度 流式写入时为字节数 0为不记录 */
+	public final static int		RESPONSE_LOG		= Params.getInt("response.log", 0);
+	/** 异步action默认超时时间 毫秒 0为不超时 */
+	public final static long	ACTION_TIMEOUT		= Params.getLong("action.timeout", 30000);
+
+	/**
+	 * 获得异步action超时时间 读取action.name.timeout 没有使用action.timeout
+	 * @param name action名.方法名
+	 * @return 超时时间 毫秒
+	 */
+	public static long getTimeout(String name) {
+		return Params.getLong(Params.getKey("action", name, "timeout"), ACTION_TIMEOUT);
+	}
 
 	private WebParams() {}
 }
\ No newline at end of file
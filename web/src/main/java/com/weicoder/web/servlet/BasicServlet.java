@@ -4,7 +4,14 @@ import java.io.IOException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
@@ -16,21 +23,13 @@ import com.weicoder.common.lang.Conversion;
 import com.weicoder.common.lang.Maps;
 import com.weicoder.common.log.Log;
 import com.weicoder.common.log.LogFactory;
-import com.weicoder.common.token.TokenBean;
-import com.weicoder.common.token.TokenEngine;
-import com.weicoder.common.util.BeanUtil;
-import com.weicoder.common.util.ClassUtil;
 import com.weicoder.common.util.EmptyUtil;
 import com.weicoder.common.util.IpUtil;
 import com.weicoder.common.util.StringUtil;
 import com.weicoder.core.params.ErrorCodeParams;
-import com.weicoder.web.annotation.Action;
 import com.weicoder.web.annotation.Cookies;
-import com.weicoder.web.annotation.Forward;
-import com.weicoder.web.annotation.Get;
-import com.weicoder.web.annotation.Post;
-import com.weicoder.web.annotation.Redirect;
 import com.weicoder.web.annotation.State;
+import com.weicoder.web.common.Route;
 import com.weicoder.web.common.WebCommons;
 import com.weicoder.web.params.WebParams;
 import com.weicoder.web.util.CookieUtil;
@@ -42,7 +41,7 @@ import com.weicoder.web.validator.Validators;
  * 基础Servlet 3
  * @author WD
  */
-@WebServlet("/*")
+@WebServlet(urlPatterns = "/*", asyncSupported = true)
 public class BasicServlet extends HttpServlet {
 	private static final long	serialVersionUID	= 3117468121294921856L;
 	// 日志
@@ -61,80 +60,55 @@ public class BasicServlet extends HttpServlet {
 		String path = request.getPathInfo(); 
 		LOG.debug("request ip={} path={} Method={} scheme={} queryString={}", ip, path, m, request.getScheme(), request.getQueryString());
 		if (EmptyUtil.isNotEmpty(path)) {
-			// 分解提交action 去处开头的/ 并且按/或者_分解出数组
+			// 去处开头的/ 查找路由表
 			String actionName = StringUtil.subString(path, 1, path.length());
-			String[] actions = StringUtil.contains(actionName, StringConstants.BACKSLASH) ? StringUtil.split(actionName, StringConstants.BACKSLASH)
-					: StringUtil.split(actionName, StringConstants.UNDERLINE);
-			if (EmptyUtil.isEmpty(actions)) {
-				LOG.debug("this path={}", path);
-				ResponseUtil.json(response, callback, "action is null path");
-				return;
-			}
-			// 获得Action
-			String name = actions[actions.length - 1];
-			Object action = null;
-			for (int i = actions.length - 2; i >= 0; i--) {
-				name = actions[i];
-				action = WebCommons.ACTIONS.get(name);
-				if (action != null)
-					break;
-			}
-			// action为空
-			if (action == null) {
-				// 如果使用action[_/]method模式 直接返回
-				if (actions.length == 2) {
+			Route route = WebCommons.ROUTES.get(actionName);
+			// 路由表没有 按/或者_分解出数组查找
+			if (route == null) {
+				String[] actions = StringUtil.contains(actionName, StringConstants.BACKSLASH) ? StringUtil.split(actionName, StringConstants.BACKSLASH)
+						: StringUtil.split(actionName, StringConstants.UNDERLINE);
+				if (EmptyUtil.isEmpty(actions)) {
+					LOG.debug("this path={}", path);
+					ResponseUtil.json(response, callback, "action is null path");
+					return;
+				}
+				// 获得Action的方法路由
+				Map<String, Route> routes = null;
+				for (int i = actions.length - 2; i >= 0 && routes == null; i--)
+					routes = WebCommons.ACTIONS_ROUTES.get(actions[i]);
+				// action为空 如果使用action[_/]method模式 直接返回
+				if (routes == null && actions.length == 2) {
 					LOG.debug("request ip={},path={},no action", ip, path);
 					ResponseUtil.json(response, callback, "no action");
 					return;
 				}
-				// 查找方法对应action
-				action = WebCommons.METHODS_ACTIONS.get(name);
-			}
-			// action为空
-			if (action == null) {
-				// 还是为空
-				LOG.warn("request ip={},path={},name={},actionName={},ma={},no action and method", ip, path, name, actionName, WebCommons.METHODS_ACTIONS);
-				ResponseUtil.json(response, callback, "no action and method");
-				return;
-			}
-			// 过滤IP
-			Action a = action.getClass().getAnnotation(Action.class);
-			if (a.ips()) {
-				// 如果在允许列表继续 否则退出
-				if (!IpUtil.contains(ip)) {
-					LOG.debug("this ip={}", ip);
-					ResponseUtil.json(response, callback, "not exist ip");
+				// 获得方法路由 没有action查找方法对应路由
+				route = (routes == null ? WebCommons.METHODS_ROUTES : routes).get(actions[actions.length - 1]);
+				if (route == null) {
+					LOG.debug("request ip={},path={},actionName={},no action and method", ip, path, actionName);
+					ResponseUtil.json(response, callback, routes == null ? "no action and method" : "no method");
 					return;
 				}
 			}
-			// 获得方法
-			Map<String, Method> methods = WebCommons.ACTIONS_METHODS.get(name);
-			if (EmptyUtil.isEmpty(methods))
-				methods = WebCommons.METHODS;
-			Method method = methods.get(actions[actions.length - 1]);
-			if (method == null) {
-				LOG.debug("request ip={},path={},no method", ip, path);
-				ResponseUtil.json(response, callback, "no method");
-				return;
-			}
-			// 判断提交方法
-			// if (a.method()) {
-			// 校验是否只使用post方法提交
-			if (method.isAnnotationPresent(Post.class) && !StringUtil.equals("POST", m.toUpperCase())) {
-				ResponseUtil.json(response, callback, "no method is " + m);
+			// 获得action与方法
+			Object action = route.getAction();
+			Method method = route.getMethod();
+			// 过滤IP 如果在允许列表继续 否则退出
+			if (route.isIps() && !IpUtil.contains(ip)) {
+				LOG.debug("this ip={}", ip);
+				ResponseUtil.json(response, callback, "not exist ip");
 				return;
 			}
-			// 校验是否只使用get方法提交
-			if (method.isAnnotationPresent(Get.class) && !StringUtil.equals("GET", m.toUpperCase())) {
+			// 校验是否只使用post或get方法提交
+			if (!route.allow(m)) {
 				ResponseUtil.json(response, callback, "no method is " + m);
 				return;
 			}
-			// }
 			// 设置参数
-			Parameter[] pars = WebCommons.METHODS_PARAMES.get(method);
+			Parameter[] pars = route.getParameters();
 			Object[] params = null;
-			// 所有提交的参数
-			Map<String, String> ps = RequestUtil.getAll(request);
+			// 所有提交的参数 按键延迟读取
+			Map<String, String> ps = RequestUtil.getView(request);
 			LOG.debug("action={} params={}", actionName, ps);
 			// 验证
 			int code = Validators.validator(method, action, ps, ip);
@@ -144,97 +118,190 @@ public class BasicServlet extends HttpServlet {
 				if (EmptyUtil.isEmpty(ps.get("ip")))
 					ps.put("ip", ip);
 				LOG.trace("request all ip={} params={}", ip, params);
-				// token验证通过在执行
-				if (code == WebParams.STATE_SUCCESS) {
-					// action全部参数下标
-					int i = 0;
-					for (; i < pars.length; i++) {
-						// 判断类型并设置
-						Parameter p = pars[i];
-						// 参数的类型
-						Class<?> cs = p.getType();
-						if (HttpServletRequest.class.equals(cs))
-							params[i] = request;
-						else if (HttpServletResponse.class.equals(cs))
-							params[i] = response;
-						else if (TokenBean.class.equals(cs))
-							// 设置Token
-							params[i] = TokenEngine.decrypt(ps.get(p.getName()));
-						else if (Map.class.equals(cs))
-							params[i] = ps;
-						else if (ClassUtil.isBaseType(cs)) {
-							// 获得参数
-							params[i] = Conversion.to(ps.get(p.getName()), cs);
-							// 验证参数
-							if ((code = Validators.validator(p, params[i])) != WebParams.STATE_SUCCESS)
-								break;
-						} else {
-							// 设置属性
-							params[i] = BeanUtil.copy(ps, cs);
-							// 验证参数
-							if ((code = Validators.validator(params[i])) != WebParams.STATE_SUCCESS)
-								break;
-						}
-					}
-				}
+				// token验证通过在执行 按编译的绑定器设置并验证参数
+				if (code == WebParams.STATE_SUCCESS)
+					code = route.getBinder().bind(request, response, ps, params);
 			}
 			// 调用方法
-			// try {
-			Object res = null;
-			if (code == WebParams.STATE_SUCCESS)
-				res = BeanUtil.invoke(action, method, params);
-			else
-				res = code;
-			// 判断是否需要写cookie
-			boolean cookie = method.isAnnotationPresent(Cookies.class) || action.getClass().isAnnotationPresent(Cookies.class);
-			String[] names = null;
-			Cookies c = null;
-			if (cookie) {
-				// 获得Cookies注解
-				c = method.getAnnotation(Cookies.class);
-				if (c == null)
-					c = action.getClass().getAnnotation(Cookies.class);
-				names = c.names();
+			Object res = code == WebParams.STATE_SUCCESS ? route.invoke(params) : code;
+			// 异步结果 释放容器线程 完成后在回调线程写结果
+			if (res instanceof CompletionStage<?>) {
+				async(request, response, route, callback, (CompletionStage<?>) res, ip, actionName, params, curr);
+				return;
 			}
-			// 判断是否跳转url
-			if (method.isAnnotationPresent(Redirect.class) || action.getClass().isAnnotationPresent(Redirect.class)) {
+			// 写到前端
+			String body = result(request, response, null, route, callback, res);
+			if (body != null)
+				LOG.info("request ip={} name={}  params={} pars={} time={} res={} end", ip, actionName, params, pars, System.currentTimeMillis() - curr, body);
+		}
+	}
+
+	/**
+	 * 异步处理action结果 开启AsyncContext 结果完成或超时后写前端
+	 * @param request HttpServletRequest
+	 * @param response HttpServletResponse
+	 * @param route 路由
+	 * @param callback 跨域用
+	 * @param stage 异步结果
+	 * @param ip 客户端ip
+	 * @param actionName action名
+	 * @param params 方法参数
+	 * @param curr 请求开始时间
+	 * @throws ServletException 转发异常
+	 * @throws IOException 写入异常
+	 */
+	private void async(HttpServletRequest request, HttpServletResponse response, Route route, String callback, CompletionStage<?> stage, String ip, String actionName,
+			Object[] params, long curr) throws ServletException, IOException {
+		CompletableFuture<?> future = stage.toCompletableFuture();
+		long timeout = route.getTimeout();
+		// 容器不支持异步 在当前线程等待结果
+		if (!request.isAsyncSupported()) {
+			Object res;
+			try {
+				res = timeout > 0 ? future.get(timeout, TimeUnit.MILLISECONDS) : future.get();
+			} catch (Exception e) {
+				LOG.error(e, "async action name={} timeout={}", actionName, timeout);
+				future.cancel(true);
+				res = null;
+			}
+			String body = result(request, response, null, route, callback, res);
+			if (body != null)
+				LOG.info("request ip={} name={}  params={} time={} res={} end", ip, actionName, params, System.currentTimeMillis() - curr, body);
+			return;
+		}
+		// 开启异步
+		AsyncContext ac = request.startAsync(request, response);
+		ac.setTimeout(timeout);
+		// 结果和超时只处理一次
+		AtomicBoolean done = new AtomicBoolean();
+		ac.addListener(new AsyncListener() {
+			@Override
+			public void onTimeout(AsyncEvent event) throws IOException {
+				if (done.compareAndSet(false, true)) {
+					LOG.warn("async action timeout name={} timeout={}", actionName, timeout);
+					future.cancel(true);
+					complete(ac, route, callback, null, ip, actionName, params, curr);
+				}
+			}
+
+			@Override
+			public void onError(AsyncEvent event) throws IOException {
+				if (done.compareAndSet(false, true)) {
+					LOG.error(event.getThrowable(), "async action error name={}", actionName);
+					future.cancel(true);
+					ac.complete();
+				}
+			}
+
+			@Override
+			public void onComplete(AsyncEvent event) throws IOException {}
+
+			@Override
+			public void onStartAsync(AsyncEvent event) throws IOException {}
+		});
+		// 结果完成
+		future.whenComplete((res, t) -> {
+			if (done.compareAndSet(false, true)) {
+				if (t != null)
+					LOG.error(t, "async action name={}", actionName);
+				complete(ac, route, callback, t == null ? res : null, ip, actionName, params, curr);
+			}
+		});
+	}
+
+	/**
+	 * 写异步结果到前端并结束AsyncContext
+	 * @param ac AsyncContext
+	 * @param route 路由
+	 * @param callback 跨域用
+	 * @param res 结果
+	 * @param ip 客户端ip
+	 * @param actionName action名
+	 * @param params 方法参数
+	 * @param curr 请求开始时间
+	 */
+	private void complete(AsyncContext ac, Route route, String callback, Object res, String ip, String actionName, Object[] params, long curr) {
+		String body = null;
+		try {
+			body = result((HttpServletRequest) ac.getRequest(), (HttpServletResponse) ac.getResponse(), ac, route, callback, res);
+		} catch (Exception e) {
+			LOG.error(e, "async action result name={}", actionName);
+			ac.complete();
+			return;
+		}
+		// 返回null为已跳转或转发
+		if (body != null) {
+			ac.complete();
+			LOG.info("request ip={} name={}  params={} time={} res={} async end", ip, actionName, params, System.currentTimeMillis() - curr, body);
+		}
+	}
+
+	/**
+	 * 按路由的返回方式处理结果 写cookie 跳转 转发或写json
+	 * @param request HttpServletRequest
+	 * @param response HttpServletResponse
+	 * @param ac 异步时为AsyncContext 同步为null
+	 * @param route 路由
+	 * @param callback 跨域用
+	 * @param res 结果
+	 * @return 日志记录的结果 已跳转或转发返回null
+	 * @throws ServletException 转发异常
+	 * @throws IOException 写入异常
+	 */
+	private String result(HttpServletRequest request, HttpServletResponse response, AsyncContext ac, Route route, String callback, Object res)
+			throws ServletException, IOException {
+		// 判断是否需要写cookie
+		Cookies c = route.getCookies();
+		boolean cookie = c != null;
+		String[] names = cookie ? c.names() : null;
+		// 按路由的返回方式处理结果
+		switch (route.getResult()) {
+			case Route.REDIRECT:
+				// 跳转url
 				String url = Conversion.toString(res);
 				if (EmptyUtil.isEmpty(url))
-					ResponseUtil.json(response, callback, "Redirect is null");
+					// 跳转为空 写提示信息
+					res = "Redirect is null";
 				else {
 					LOG.debug("redirect url:{}", url);
 					response.sendRedirect(url);
-					return;
+					// 异步时跳转后结束
+					if (ac != null)
+						ac.complete();
+					return null;
 				}
-			} else if (method.isAnnotationPresent(Forward.class) || action.getClass().isAnnotationPresent(Forward.class)) {
-				String url = Conversion.toString(res);
-				if (EmptyUtil.isEmpty(url))
-					ResponseUtil.json(response, callback, "Forward is null");
+				break;
+			case Route.FORWARD:
+				// 转发url
+				String forward = Conversion.toString(res);
+				if (EmptyUtil.isEmpty(forward))
+					// 转发为空 写提示信息
+					res = "Forward is null";
 				else {
-					LOG.debug("forward url:{}", url);
-					request.getRequestDispatcher(url).forward(request, response);
-					return;
+					LOG.debug("forward url:{}", forward);
+					// 异步时由容器转发
+					if (ac == null)
+						request.getRequestDispatcher(forward).forward(request, response);
+					else
+						ac.dispatch(forward);
+					return null;
 				}
-			} else if (method.isAnnotationPresent(State.class) || action.getClass().isAnnotationPresent(State.class)) {
-				// 状态码对象
-				State state = method.getAnnotation(State.class);
-				if (state == null)
-					state = action.getClass().getAnnotation(State.class);
-				// 字段名
+				break;
+			case Route.STATE:
+				// 状态码对象 字段名
+				State state = route.getState();
 				String status = state.state();
 				String success = state.success();
 				String error = state.error();
-				// 如果res为状态码
+				// 如果res为状态码 结果只在最后写入一次
 				if (res == null)
 					// 写空信息
-					ResponseUtil.json(response, callback,
-							Maps.newMap(new String[] { status, error }, new Object[] { WebParams.STATE_ERROR_NULL, ErrorCodeParams.getMessage(WebParams.STATE_ERROR_NULL) }));
+					res = Maps.newMap(new String[] { status, error }, new Object[] { WebParams.STATE_ERROR_NULL, ErrorCodeParams.getMessage(WebParams.STATE_ERROR_NULL) });
 				else if (res instanceof Integer) {
 					// 写错误信息
 					int errorcode = Conversion.toInt(res);
-					// 写入到前端
-					ResponseUtil.json(response, callback, Maps.newMap(new String[] { status, errorcode == WebParams.STATE_SUCCESS ? success : error },
-							new Object[] { errorcode, errorcode == WebParams.STATE_SUCCESS ? WebParams.STATE_SUCCESS_MSG : ErrorCodeParams.getMessage(errorcode) }));
+					res = Maps.newMap(new String[] { status, errorcode == WebParams.STATE_SUCCESS ? success : error },
+							new Object[] { errorcode, errorcode == WebParams.STATE_SUCCESS ? WebParams.STATE_SUCCESS_MSG : ErrorCodeParams.getMessage(errorcode) });
 				} else {
 					// 是否写cookie
 					if (cookie)
@@ -242,7 +309,8 @@ public class BasicServlet extends HttpServlet {
 					// 写入到前端
 					res = Maps.newMap(new String[] { status, success }, new Object[] { WebParams.STATE_SUCCESS, res });
 				}
-			} else {
+				break;
+			default:
 				// 如果结果为空
 				if (res == null)
 					// 结果设置为空map
@@ -250,10 +318,29 @@ public class BasicServlet extends HttpServlet {
 				else if (cookie)
 					// 写cookie
 					CookieUtil.adds(response, c.maxAge(), res, names);
-			}
-			// 写到前端
-			LOG.info("request ip={} name={}  params={} pars={} time={} res={} end", ip, actionName, params, pars, System.currentTimeMillis() - curr, ResponseUtil.json(response, callback, res));
 		}
+		// 写到前端
+		return write(response, callback, res);
+	}
+
+	/**
+	 * 写action结果到前端 按配置流式写入
+	 * @param response HttpServletResponse
+	 * @param callback 跨域用
+	 * @param res 结果
+	 * @return 日志记录的结果 按配置截取 不记录返回空串
+	 */
+	private String write(HttpServletResponse response, String callback, Object res) {
+		// 流式写入 需要记录日志时保留写出的开头内容 不重复序列化
+		if (WebParams.RESPONSE_STREAM) {
+			if (WebParams.RESPONSE_LOG > 0)
+				return ResponseUtil.stream(response, callback, res, WebParams.RESPONSE_LOG);
+			ResponseUtil.stream(response, callback, res);
+			return StringConstants.EMPTY;
+		}
+		// 生成字符串写入
+		String s = ResponseUtil.json(response, callback, res);
+		return WebParams.RESPONSE_LOG > 0 ? StringUtil.subString(s, 0, WebParams.RESPONSE_LOG) : StringConstants.EMPTY;
 	}
 
 	@Override
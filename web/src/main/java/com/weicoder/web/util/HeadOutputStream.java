@@ -0,0 +1,65 @@
+package com.weicoder.web.util;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 写入时记录字节数并保留开头的字节 用于流式输出时记录日志 不再重复序列化
+ * @author WD
+ */
+final class HeadOutputStream extends FilterOutputStream {
+	// 保留的开头字节
+	private final byte[]	head;
+	// 已保留的字节数
+	private int				size;
+	// 已写入的字节数
+	private int				count;
+
+	/**
+	 * 构造
+	 * @param out 输出流
+	 * @param max 保留开头的最大字节数
+	 */
+	HeadOutputStream(OutputStream out, int max) {
+		super(out);
+		this.head = new byte[Math.max(max, 0)];
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		out.write(b);
+		if (size < head.length)
+			head[size++] = (byte) b;
+		count++;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		// 直接写入 不按字节写
+		out.write(b, off, len);
+		int n = Math.min(len, head.length - size);
+		if (n > 0) {
+			System.arraycopy(b, off, head, size, n);
+			size += n;
+		}
+		count += len;
+	}
+
+	/**
+	 * 已写入的字节数
+	 * @return 字节数
+	 */
+	int count() {
+		return count;
+	}
+
+	/**
+	 * 保留的开头内容 按UTF-8解码
+	 * @return 开头内容
+	 */
+	String head() {
+		return new String(head, 0, size, StandardCharsets.UTF_8);
+	}
+}
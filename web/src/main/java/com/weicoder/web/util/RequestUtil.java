@@ -10,10 +10,12 @@ import javax.servlet.http.HttpSession;
 
 import com.weicoder.common.constants.ArrayConstants;
 import com.weicoder.common.constants.StringConstants;
+import com.weicoder.common.lang.Conversion;
 import com.weicoder.common.lang.Maps;
 import com.weicoder.common.util.EmptyUtil;
 import com.weicoder.common.util.IpUtil;
 import com.weicoder.common.util.StringUtil;
+import com.weicoder.web.common.RequestMap;
 
 /**
  * Request一些相关操作类
@@ -168,13 +170,22 @@ public final class RequestUtil {
 		for (Enumeration<String> e = request.getAttributeNames(); e.hasMoreElements();) {
 			// 获得参数Key
 			String key = e.nextElement();
-			// 获得参数值并添加到Map中
-			map.put(key, request.getHeader(key));
+			// 获得属性值并添加到Map中
+			map.put(key, Conversion.toString(request.getAttribute(key)));
 		}
 		// 返回Map
 		return map;
 	}
 
+	/**
+	 * 获得request的提交所有参数的延迟视图 按键读取时才查找 优先级与getAll相同 只在请求处理期间有效
+	 * @param request HttpServletRequest
+	 * @return Map参数
+	 */
+	public static Map<String, String> getView(HttpServletRequest request) {
+		return new RequestMap(request);
+	}
+
 	/**
 	 * 获得request的提交所有参数 包括cookie和header
 	 * @param request HttpServletRequest
@@ -1,7 +1,9 @@
 package com.weicoder.web.util;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
 
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletResponse;
@@ -39,14 +41,8 @@ public final class ResponseUtil {
 	 * @return String
 	 */
 	public static String write(HttpServletResponse response, String str, String charsetName) {
-		// 清除缓存
-		noCache(response);
-		// 设置头
-		setContentType(response, HttpConstants.CONTENT_TYPE_JSON);
-		// "CP='IDC DSP COR ADM DEVi TAIi PSA PSD IVAi IVDi CONi HIS OUR IND CNT'"
-		response.setHeader("P3P", "CP='CURa ADMa DEVa PSAo PSDo OUR BUS UNI PUR INT DEM STA PRE COM NAV OTC NOI DSP COR'");
-		// 设置编码
-		response.setCharacterEncoding(charsetName);
+		// 设置头和编码
+		header(response, charsetName);
 		// 声明PrintWriter
 		PrintWriter pw = null;
 		// 写入到前端
@@ -120,6 +116,96 @@ public final class ResponseUtil {
 		return write(response, s.toString());
 	}
 
+	/**
+	 * 把对象转换成json直接写入输出流 使用UTF-8编码 不生成中间字符串 适合大结果
+	 * @param response HttpServletResponse
+	 * @param callback 跨域用
+	 * @param data 对象
+	 * @return 写入的字节数
+	 */
+	public static int stream(HttpServletResponse response, String callback, Object data) {
+		HeadOutputStream out = output(response, callback, data, 0);
+		return out == null ? 0 : out.count();
+	}
+
+	/**
+	 * 把对象转换成json直接写入输出流 并保留写入的开头内容用于日志 不重复序列化
+	 * @param response HttpServletResponse
+	 * @param callback 跨域用
+	 * @param data 对象
+	 * @param log 保留开头的最大字节数
+	 * @return 写入的开头内容
+	 */
+	public static String stream(HttpServletResponse response, String callback, Object data, int log) {
+		HeadOutputStream out = output(response, callback, data, log);
+		return out == null ? StringConstants.EMPTY : out.head();
+	}
+
+	/**
+	 * 把对象转换成json直接写入输出流
+	 * @param response HttpServletResponse
+	 * @param callback 跨域用
+	 * @param data 对象
+	 * @param log 保留开头的最大字节数
+	 * @return 写入的输出流 数据为空或写入失败返回null
+	 */
+	private static HeadOutputStream output(HttpServletResponse response, String callback, Object data, int log) {
+		// 返回数据为空
+		if (data == null)
+			return null;
+		// 已提交 使用字符输出 与不流式写入时一致
+		if (response.isCommitted())
+			return writer(response, callback, data, log);
+		// 写入前端
+		try {
+			// 已使用getWriter时不能获得输出流 使用字符输出
+			OutputStream os;
+			try {
+				os = response.getOutputStream();
+			} catch (IllegalStateException e) {
+				return writer(response, callback, data, log);
+			}
+			// 设置头和编码
+			header(response, StandardCharsets.UTF_8.name());
+			HeadOutputStream out = new HeadOutputStream(os, log);
+			// 如果callback不为空 填补左括号
+			boolean jsonp = EmptyUtil.isNotEmpty(callback);
+			if (jsonp)
+				out.write((callback + "(").getBytes(StandardCharsets.UTF_8));
+			// 写入json数据
+			if (data instanceof String || data instanceof Number)
+				out.write(Conversion.toString(data).getBytes(StandardCharsets.UTF_8));
+			else
+				JsonEngine.write(out, data);
+			// 如果callback不为空 填补右括号
+			if (jsonp)
+				out.write(')');
+			out.flush();
+			return out;
+		} catch (Exception e) {
+			Logs.error(e);
+			return null;
+		}
+	}
+
+	/**
+	 * 把对象转换成json使用getWriter写入 记录写入的字节数和开头内容
+	 * @param response HttpServletResponse
+	 * @param callback 跨域用
+	 * @param data 对象
+	 * @param log 保留开头的最大字节数
+	 * @return 记录写入内容的输出流
+	 */
+	private static HeadOutputStream writer(HttpServletResponse response, String callback, Object data, int log) {
+		HeadOutputStream out = new HeadOutputStream(OutputStream.nullOutputStream(), log);
+		try {
+			out.write(json(response, callback, data).getBytes(StandardCharsets.UTF_8));
+		} catch (IOException e) {
+			Logs.error(e);
+		}
+		return out;
+	}
+
 	/**
 	 * 设置页面不缓存
 	 * @param response Response
@@ -142,5 +228,21 @@ public final class ResponseUtil {
 			response.setContentType(type);
 	}
 
+	/**
+	 * 设置json输出头和编码
+	 * @param response HttpServletResponse
+	 * @param charsetName 编码
+	 */
+	private static void header(HttpServletResponse response, String charsetName) {
+		// 清除缓存
+		noCache(response);
+		// 设置头
+		setContentType(response, HttpConstants.CONTENT_TYPE_JSON);
+		// "CP='IDC DSP COR ADM DEVi TAIi PSA PSD IVAi IVDi CONi HIS OUR IND CNT'"
+		response.setHeader("P3P", "CP='CURa ADMa DEVa PSAo PSDo OUR BUS UNI PUR INT DEM STA PRE COM NAV OTC NOI DSP COR'");
+		// 设置编码
+		response.setCharacterEncoding(charsetName);
+	}
+
 	private ResponseUtil() {}
 }
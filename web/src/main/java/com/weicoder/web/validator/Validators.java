@@ -76,7 +76,7 @@ public final class Validators {
 	 * @param value 参数值
 	 * @return 校验值
 	 */
-	private static int validator(Annotation[] as, Object value) {
+	public static int validator(Annotation[] as, Object value) {
 		// 如果是基本类型
 		for (Annotation a : as) {
 			// 判断验证类型